@@ -0,0 +1,53 @@
+package graph;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import diver.McDiver;
+
+/** Time for McDiver to play the fixture games: the scram phase alone, and a whole <br>
+ * game. Picking up coins changes the maps, so every invocation plays on freshly <br>
+ * deserialized copies (their loading is not measured). */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations= 2, time= 5)
+@Measurement(iterations= 5, time= 5)
+@Fork(1)
+public class GameBenchmark {
+
+	@Param({ "25x40", "100x100", "300x300", "1000x1000" })
+	public String size;
+
+	private GameState game;
+
+	@Setup(Level.Invocation)
+	public void setUp() {
+		game= new GameState(SewerFixtures.seek(size), SewerFixtures.scram(size), new McDiver());
+		game.setQuiet(true);
+	}
+
+	@Benchmark
+	public int scram() {
+		game.scram();
+		return game.getScore();
+	}
+
+	@Benchmark
+	public int fullGame() {
+		game.run();
+		return game.getScore();
+	}
+}
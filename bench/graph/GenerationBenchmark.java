@@ -0,0 +1,67 @@
+package graph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Time to generate each kind of map, from the fixture seed, at each size. <br>
+ * digGetOutSewer is asked to open the ring tile of the fixture's seek map, <br>
+ * as GameState asks it to. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations= 2, time= 5)
+@Measurement(iterations= 5, time= 5)
+@Fork(1)
+public class GenerationBenchmark {
+
+	@Param({ "25x40", "100x100", "300x300", "1000x1000" })
+	public String size;
+
+	private int rows;
+	private int cols;
+	private int ringRow;
+	private int ringCol;
+
+	@Setup
+	public void setUp() {
+		rows= SewerFixtures.rows(size);
+		cols= SewerFixtures.cols(size);
+		Tile ring= SewerFixtures.seek(size).ring().getTile();
+		ringRow= ring.row();
+		ringCol= ring.column();
+	}
+
+	@Benchmark
+	public Sewers digExploreSewer() {
+		return Sewers.digExploreSewer(rows, cols, new Random(SewerFixtures.SEED));
+	}
+
+	@Benchmark
+	public Sewers digGetOutSewer() {
+		return Sewers.digGetOutSewer(rows, cols, ringRow, ringCol, new Random(SewerFixtures.SEED));
+	}
+
+	@Benchmark
+	public Sewers digExploreSewerSinglePass() {
+		return Sewers.digExploreSewer(rows, cols, new Random(SewerFixtures.SEED),
+			Sewers.Generation.SINGLE_PASS);
+	}
+
+	@Benchmark
+	public Sewers digGetOutSewerSinglePass() {
+		return Sewers.digGetOutSewer(rows, cols, ringRow, ringCol, new Random(SewerFixtures.SEED),
+			Sewers.Generation.SINGLE_PASS);
+	}
+}
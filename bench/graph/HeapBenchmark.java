@@ -0,0 +1,100 @@
+package graph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import diver.Heap;
+
+/** Throughput of the priority queues on the same workload: add n values with <br>
+ * seeded random priorities, lower the priority of every other value, and poll <br>
+ * them all. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations= 3, time= 2)
+@Measurement(iterations= 5, time= 2)
+@Fork(1)
+public class HeapBenchmark {
+
+	/** The number of values: about a 25x40 map, and about a 1000x1000 map. */
+	@Param({ "1000", "600000" })
+	public int n;
+
+	private int[] priorities;
+	private Integer[] boxed;
+	private IntMinHeap intMinHeap;
+
+	@Setup
+	public void setUp() {
+		Random rand= new Random(SewerFixtures.SEED);
+		priorities= new int[n];
+		boxed= new Integer[n];
+		for (int i= 0; i < n; i++ ) {
+			priorities[i]= rand.nextInt(16 * n);
+			boxed[i]= i;
+		}
+		intMinHeap= new IntMinHeap(n);
+	}
+
+	@Benchmark
+	public int diverHeap() {
+		Heap<Integer> h= new Heap<>(true);
+		for (int i= 0; i < n; i++ ) {
+			h.add(boxed[i], priorities[i]);
+		}
+		for (int i= 0; i < n; i+= 2) {
+			h.changePriority(boxed[i], priorities[i] / 2);
+		}
+		int sum= 0;
+		while (h.size() > 0) {
+			sum+= h.poll();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int internalMinHeap() {
+		InternalMinHeap<Integer> h= new InternalMinHeap<>();
+		for (int i= 0; i < n; i++ ) {
+			h.add(boxed[i], priorities[i]);
+		}
+		for (int i= 0; i < n; i+= 2) {
+			h.changePriority(boxed[i], priorities[i] / 2);
+		}
+		int sum= 0;
+		while (h.size() > 0) {
+			sum+= h.poll();
+		}
+		return sum;
+	}
+
+	/** IntMinHeap, reused across invocations, so this allocates nothing. */
+	@Benchmark
+	public int intMinHeap() {
+		IntMinHeap h= intMinHeap;
+		h.clear();
+		for (int i= 0; i < n; i++ ) {
+			h.add(i, priorities[i]);
+		}
+		for (int i= 0; i < n; i+= 2) {
+			h.decreaseKey(i, priorities[i] / 2);
+		}
+		int sum= 0;
+		while (!h.isEmpty()) {
+			sum+= h.poll();
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,150 @@
+package graph;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import diver.A6;
+
+/** Throughput of single point-to-point shortest-path queries on the scram map of <br>
+ * each fixture. Every benchmark cycles through the same fixed, seeded list of <br>
+ * (start, end) pairs. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations= 3, time= 2)
+@Measurement(iterations= 5, time= 2)
+@Fork(1)
+public class PathfindingBenchmark {
+
+	/** The number of distinct queries cycled through. */
+	private static final int QUERIES= 64;
+
+	@Param({ "25x40", "100x100", "300x300", "1000x1000" })
+	public String size;
+
+	private Sewers sewers;
+	private DijkstraSearch search;
+	private AStarSearch aStar;
+	private AStarSearch alt;
+	private BidirectionalSearch bidirectional;
+	private HierarchicalSearch hierarchical;
+	private ContractedSearch contracted;
+	private int[] fromIndex;
+	private int[] toIndex;
+	private Node[] from;
+	private Node[] to;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		sewers= SewerFixtures.scram(size);
+		SewerGraph g= sewers.compact();
+		search= new DijkstraSearch(g);
+		aStar= new AStarSearch(g);
+		alt= new AStarSearch(g, sewers.landmarks());
+		bidirectional= new BidirectionalSearch(g);
+		hierarchical= new HierarchicalSearch(g);
+		contracted= new ContractedSearch(ContractedGraph.of(g));
+		Random rand= new Random(SewerFixtures.SEED);
+		from= new Node[QUERIES];
+		to= new Node[QUERIES];
+		fromIndex= new int[QUERIES];
+		toIndex= new int[QUERIES];
+		for (int i= 0; i < QUERIES; i++ ) {
+			fromIndex[i]= rand.nextInt(g.size());
+			toIndex[i]= rand.nextInt(g.size());
+			from[i]= g.node(fromIndex[i]);
+			to[i]= g.node(toIndex[i]);
+		}
+	}
+
+	/** Return the index of the next query. */
+	private int nextQuery() {
+		next= next + 1 == QUERIES ? 0 : next + 1;
+		return next;
+	}
+
+	/** A6.shortestPath over Node and Edge objects, with a NodePQueue. */
+	@Benchmark
+	public List<Node> a6ShortestPath() {
+		int q= nextQuery();
+		return A6.shortestPath(from[q], to[q]);
+	}
+
+	/** A6.shortestPath over the compact graph, reusing one search. */
+	@Benchmark
+	public List<Node> a6ShortestPathCompact() {
+		int q= nextQuery();
+		return A6.shortestPath(search, from[q], to[q]);
+	}
+
+	/** Sewers.minPathLengthToRing from each query's start. */
+	@Benchmark
+	public int minPathLengthToRing() {
+		return sewers.minPathLengthToRing(from[nextQuery()]);
+	}
+
+	/** Dijkstra's algorithm from start to end, stopping when end is settled. */
+	@Benchmark
+	public int dijkstraPointToPoint() {
+		int q= nextQuery();
+		return search.distance(fromIndex[q], toIndex[q]);
+	}
+
+	/** A* with the Manhattan-distance heuristic from start to end. */
+	@Benchmark
+	public int aStarPointToPoint() {
+		int q= nextQuery();
+		return aStar.distance(fromIndex[q], toIndex[q]);
+	}
+
+	/** A* with the landmark (ALT) heuristic from start to end. */
+	@Benchmark
+	public int altPointToPoint() {
+		int q= nextQuery();
+		return alt.distance(fromIndex[q], toIndex[q]);
+	}
+
+	/** Bidirectional Dijkstra between start and end. */
+	@Benchmark
+	public int bidirectionalPointToPoint() {
+		int q= nextQuery();
+		return bidirectional.distance(fromIndex[q], toIndex[q]);
+	}
+
+	/** Exact hierarchical search between start and end, over the default clusters. */
+	@Benchmark
+	public int hierarchicalPointToPoint() {
+		int q= nextQuery();
+		return hierarchical.distance(fromIndex[q], toIndex[q]);
+	}
+
+	/** Dijkstra's algorithm over the corridor-contracted graph between start and end. */
+	@Benchmark
+	public int contractedPointToPoint() {
+		int q= nextQuery();
+		return contracted.distance(fromIndex[q], toIndex[q]);
+	}
+
+	/** The block decomposition rooted at start and the gains of its dead-end branches <br>
+	 * (those not holding end), for a budget of two steps per node. */
+	@Benchmark
+	public BranchGains branchGains() {
+		int q= nextQuery();
+		SewerGraph g= search.graph();
+		return new BranchGains(new BlockDecomposition(g, fromIndex[q]), 2 * g.size(), toIndex[q]);
+	}
+}
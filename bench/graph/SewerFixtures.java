@@ -0,0 +1,79 @@
+package graph;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+
+/** Fixed-seed sewer maps for the benchmarks.
+ *
+ * A fixture is the pair of maps of one game (the seek map and the scram map), <br>
+ * generated from a seed exactly as GameState(seed, ...) generates them, but with a <br>
+ * given size. The first time a fixture is needed it is generated and written, in the <br>
+ * format of Sewers.serialize(), to the directory named by system property <br>
+ * sewer.fixtures (default bench/fixtures); from then on it is always read back with <br>
+ * Sewers.deserialize(), so every run measures exactly the same maps. */
+final class SewerFixtures {
+
+	/** The sizes the benchmarks are run at: the largest game grid and beyond. */
+	static final String[] SIZES= { "25x40", "100x100", "300x300", "1000x1000" };
+
+	/** The seed of every fixture. */
+	static final long SEED= 2110;
+
+	/** The directory holding the fixture files. */
+	private static final Path DIR= Paths.get(System.getProperty("sewer.fixtures", "bench/fixtures"));
+
+	private SewerFixtures() {}
+
+	/** Return the number of rows of size, which has the form "ROWSxCOLS". */
+	static int rows(String size) {
+		return Integer.parseInt(size.substring(0, size.indexOf('x')));
+	}
+
+	/** Return the number of columns of size, which has the form "ROWSxCOLS". */
+	static int cols(String size) {
+		return Integer.parseInt(size.substring(size.indexOf('x') + 1));
+	}
+
+	/** Return a freshly deserialized copy of the seek map of the fixture of size. */
+	static Sewers seek(String size) {
+		return Sewers.deserialize(lines(size, "seek"));
+	}
+
+	/** Return a freshly deserialized copy of the scram map of the fixture of size. */
+	static Sewers scram(String size) {
+		return Sewers.deserialize(lines(size, "scram"));
+	}
+
+	/** Return the serialized map kind ("seek" or "scram") of the fixture of size, <br>
+	 * generating and storing the fixture first if necessary. */
+	static synchronized List<String> lines(String size, String kind) {
+		try {
+			Path file= DIR.resolve(size + "-" + SEED + "-" + kind + ".txt");
+			if (!Files.exists(file)) {
+				generate(size);
+			}
+			return Files.readAllLines(file);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/** Generate the maps of the fixture of size and write them to DIR. */
+	private static void generate(String size) throws IOException {
+		int r= rows(size);
+		int c= cols(size);
+		Random rand= new Random(SEED);
+		Sewers seek= Sewers.digExploreSewer(r, c, rand);
+		Tile ringTile= seek.ring().getTile();
+		Sewers scram= Sewers.digGetOutSewer(r, c, ringTile.row(), ringTile.column(), rand);
+
+		Files.createDirectories(DIR);
+		Files.write(DIR.resolve(size + "-" + SEED + "-seek.txt"), seek.serialize());
+		Files.write(DIR.resolve(size + "-" + SEED + "-scram.txt"), scram.serialize());
+	}
+}
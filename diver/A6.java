@@ -9,12 +9,17 @@ package diver;
  *
  */
 
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 
+import graph.DijkstraSearch;
 import graph.Edge;
+import graph.IntNodeMap;
 import graph.Node;
+import graph.NodeMap;
+import graph.NodePQueue;
+import graph.PathSearch;
+import graph.SewerGraph;
 
 /** This class contains the solution to A6, shortest-path algorithm, <br>
  * and other methods for an undirected graph. */
@@ -33,34 +38,37 @@ public class A6 {
 		/* TODO Implement this method.
 		 * Read the A6 assignment handout for all details.
 		 * Remember, the graph is undirected.
-		 * Finally, you will need to declare a HashMap. See the handout for details */
+		 * Finally, you will need to declare a HashMap. See the handout for details.
+		 * (An IntNodeMap and a NodeMap, indexed by the nodes' indexes, do the job without
+		 * hashing.) */
 
 		// Contains an entry for each node in the frontier set. The priority of a node
 		// is the length of the shortest known path from v to the node using only settled
 		// node except for the last node, which is in F
-		Heap<Node> F= new Heap<>(true);
+		NodePQueue F= new NodePQueue(64);
 		F.add(v, 0);
 
-		// The keys in map mapSF are the nodes in the settled set S and frontier set F.
-		// The values are each node's NodeData, which contains information
-		// such as its distance and its backpointer.
-		HashMap<Node, NodeData> mapSF= new HashMap<>();
-		mapSF.put(v, new NodeData(null, 0));
+		// The keys in map dist are the nodes in the settled set S and frontier set F.
+		// The value of each is the length of the shortest known path from v to it.
+		// The value of each node but v in bkptr is its backpointer on that path.
+		IntNodeMap dist= new IntNodeMap(64);
+		NodeMap<Node> bkptr= new NodeMap<>(64);
+		dist.put(v, 0);
 
 		while (F.size() > 0) {
 			Node f= F.poll();
-			if (f == last) return path(mapSF, last);
-			int d= mapSF.get(f).dist;
+			if (f == last) return path(bkptr, last);
+			int d= dist.get(f);
 			for (Edge edge : f.getExits()) {
 				Node w= edge.getOther(f);
-				NodeData wData= mapSF.get(w);
 				int wDist= d + edge.length;
-				if (wData == null) {
-					mapSF.put(w, new NodeData(f, wDist));
+				if (!dist.containsKey(w)) {
+					dist.put(w, wDist);
+					bkptr.put(w, f);
 					F.add(w, wDist);
-				} else if (wDist < wData.dist) {
-					wData.dist= wDist;
-					wData.bkptr= f;
+				} else if (wDist < dist.get(w)) {
+					dist.put(w, wDist);
+					bkptr.put(w, f);
 					F.changePriority(w, wDist);
 				}
 			}
@@ -69,41 +77,38 @@ public class A6 {
 		return new LinkedList<>();
 	}
 
-	/** An instance contains information about a node: <br>
-	 * the Distance of this node from the start node and <br>
-	 * its Backpointer: the previous node on a shortest path <br>
-	 * from the first node to this node (null for the start node). */
-	private static class NodeData {
-		/** shortest known distance from the start node to this one. */
-		private int dist;
-		/** backpointer on path (with shortest known distance) from start node to this one */
-		private Node bkptr;
-
-		/** Constructor: an instance with dist d from the start node and<br>
-		 * backpointer p. */
-		private NodeData(Node p, int d) {
-			dist= d;     // Distance from start node to this one.
-			bkptr= p;    // Backpointer on the path (null if start node)
-		}
+	/** Return the shortest path from node v to node last <br>
+	 * ---or the empty list if a path does not exist. <br>
+	 * This is the same as shortestPath(v, last), but it runs over the compact <br>
+	 * snapshot g of the graph instead of over the Node and Edge objects. <br>
+	 * Precondition: v and last are nodes of g. */
+	public static List<Node> shortestPath(SewerGraph g, Node v, Node last) {
+		return shortestPath(new DijkstraSearch(g), v, last);
+	}
 
-		/** return a representation of this instance. */
-		@Override
-		public String toString() {
-			return "dist " + dist + ", bckptr " + bkptr;
-		}
+	/** Return the shortest path from node v to node last using search <br>
+	 * (e.g. a DijkstraSearch or an AStarSearch) ---or the empty list if a path <br>
+	 * does not exist. <br>
+	 * Reusing search for many queries on the same graph avoids reallocating its arrays. <br>
+	 * Precondition: v and last are nodes of search's graph. */
+	public static List<Node> shortestPath(PathSearch search, Node v, Node last) {
+		SewerGraph g= search.graph();
+		int[] path= search.path(g.index(v), g.index(last));
+		if (path.length == 0) return new LinkedList<>();
+		return g.toNodes(path);
 	}
 
 	/** = the path from the start node to node last.<br>
-	 * Precondition: mapSF contains all the necessary information about<br>
-	 * ............. the path. */
-	public static List<Node> path(HashMap<Node, NodeData> mapSF, Node last) {
+	 * Precondition: bkptr contains the backpointer of every node on the path<br>
+	 * ............. but the start node, which has none. */
+	public static List<Node> path(NodeMap<Node> bkptr, Node last) {
 		List<Node> path= new LinkedList<>();
 		Node p= last;
 		// invariant: All the nodes from p's successor to node last are in
 		// path, in reverse order.
 		while (p != null) {
 			path.add(0, p);
-			p= mapSF.get(p).bkptr;
+			p= bkptr.get(p);
 		}
 		return path;
 	}
@@ -0,0 +1,167 @@
+package diver;
+
+import java.util.Arrays;
+import graph.IdMap;
+import graph.SeekState;
+
+/** An instance finds the ring in the seek phase by exploring the sewer system <br>
+ * frontier by frontier, remembering everything it has seen.
+ *
+ * The known map holds every node seen so far: the nodes McDiver has stood on <br>
+ * (explored, so all their neighbors are known) and their neighbors that he has not <br>
+ * (the frontier). At each step McDiver goes to the frontier node f minimizing <br>
+ * (steps from here to f over the known map) + (grid distance from f to the ring), <br>
+ * walking there along a shortest known path. Every move in the seek map takes one <br>
+ * step and changes the grid distance to the ring by at most one, so this is A* <br>
+ * search carried out by walking: unlike a depth-first walk, which retraces its way <br>
+ * out of a dead end one parent at a time, it heads straight for the most promising <br>
+ * unexplored node, wherever it is.
+ *
+ * The known map uses local node numbers 0, 1, 2, ... in order of discovery, and <br>
+ * McDiver only ever moves to a node known to be adjacent, so moveTo never fails. */
+public final class FrontierSeeker {
+
+	/** The largest number of neighbors a node can have (one per side of its tile). */
+	private static final int MAX_DEGREE= 4;
+
+	/** The game being played. */
+	private final SeekState state;
+
+	/** Buffers for the neighbors of McDiver's location: ids and grid distances. */
+	private final long[] neighborIds= new long[MAX_DEGREE];
+	private final int[] neighborDists= new int[MAX_DEGREE];
+
+	/** Local number of each known node, by id. */
+	private final IdMap local= new IdMap();
+
+	/** The number of known nodes. For each known node v: id[v] is its id, h[v] its grid <br>
+	 * distance to the ring, explored[v] is true iff McDiver has stood on it, and <br>
+	 * adj[v*MAX_DEGREE .. v*MAX_DEGREE + deg[v] - 1] are its known neighbors. */
+	private int n;
+	private long[] id= new long[64];
+	private int[] h= new int[64];
+	private boolean[] explored= new boolean[64];
+	private int[] deg= new int[64];
+	private int[] adj= new int[64 * MAX_DEGREE];
+
+	/** The breadth-first search over the known map: queue, and for each node v reached <br>
+	 * its number of steps from the start and its predecessor; seen[v] = round iff v was <br>
+	 * reached in the current round. */
+	private int[] queue= new int[64];
+	private int[] steps= new int[64];
+	private int[] pred= new int[64];
+	private int[] seen= new int[64];
+	private int round;
+
+	/** Constructor: a seeker for the game state. */
+	public FrontierSeeker(SeekState state) {
+		this.state= state;
+	}
+
+	/** Walk until McDiver stands on the ring. <br>
+	 * Precondition: McDiver has not moved yet in this game. */
+	public void seek() {
+		int here= know(state.currentLocation(), state.distanceToRing());
+		while (h[here] != 0) {
+			explore(here);
+			int[] path= pathToBestFrontier(here);
+			if (path.length == 0) {
+				throw new IllegalStateException("The ring cannot be reached.");
+			}
+			for (int v : path) {
+				state.moveTo(id[v]);
+			}
+			here= path[path.length - 1];
+		}
+	}
+
+	/** Record the neighbors of node here, where McDiver now stands. */
+	private void explore(int here) {
+		explored[here]= true;
+		int k= state.neighbors(neighborIds, neighborDists);
+		for (int i= 0; i < k; i++ ) {
+			int w= know(neighborIds[i], neighborDists[i]);
+			link(here, w);
+			link(w, here);
+		}
+	}
+
+	/** Return the local number of the node with id nodeId and grid distance dist to <br>
+	 * the ring, adding it to the known map if it is new. */
+	private int know(long nodeId, int dist) {
+		long v= local.getOrDefault(nodeId, -1);
+		if (v >= 0) return (int) v;
+		if (n == id.length) grow();
+		id[n]= nodeId;
+		h[n]= dist;
+		local.put(nodeId, n);
+		return n++ ;
+	}
+
+	/** Record that node w is a neighbor of node v, unless it already is. */
+	private void link(int v, int w) {
+		int base= v * MAX_DEGREE;
+		for (int i= 0; i < deg[v]; i++ ) {
+			if (adj[base + i] == w) return;
+		}
+		adj[base + deg[v]]= w;
+		deg[v]++ ;
+	}
+
+	/** Double the capacity of the known map. */
+	private void grow() {
+		int cap= 2 * id.length;
+		id= Arrays.copyOf(id, cap);
+		h= Arrays.copyOf(h, cap);
+		explored= Arrays.copyOf(explored, cap);
+		deg= Arrays.copyOf(deg, cap);
+		adj= Arrays.copyOf(adj, cap * MAX_DEGREE);
+		queue= Arrays.copyOf(queue, cap);
+		steps= Arrays.copyOf(steps, cap);
+		pred= Arrays.copyOf(pred, cap);
+		seen= Arrays.copyOf(seen, cap);
+	}
+
+	/** Return the path (excluding here, ending at the frontier node) to the frontier <br>
+	 * node f with the least steps(here, f) + h[f], breaking ties by the smaller h[f] <br>
+	 * ---or an empty array if there is no frontier node. <br>
+	 * Paths run through explored nodes only, since only their neighbors are known. */
+	private int[] pathToBestFrontier(int here) {
+		round++ ;
+		int head= 0;
+		int tail= 0;
+		queue[tail++ ]= here;
+		seen[here]= round;
+		steps[here]= 0;
+		pred[here]= -1;
+		int best= -1;
+		int bestCost= Integer.MAX_VALUE;
+		while (head < tail) {
+			int v= queue[head++ ];
+			if (steps[v] > bestCost) break;
+			if (!explored[v]) {
+				int cost= steps[v] + h[v];
+				if (cost < bestCost || cost == bestCost && h[v] < h[best]) {
+					best= v;
+					bestCost= cost;
+				}
+				continue;
+			}
+			for (int i= v * MAX_DEGREE, end= i + deg[v]; i < end; i++ ) {
+				int w= adj[i];
+				if (seen[w] == round) continue;
+				seen[w]= round;
+				pred[w]= v;
+				steps[w]= steps[v] + 1;
+				queue[tail++ ]= w;
+			}
+		}
+		if (best < 0) return new int[0];
+
+		int[] path= new int[steps[best]];
+		for (int v= best, k= path.length - 1; v != here; v= pred[v], k-- ) {
+			path[k]= v;
+		}
+		return path;
+	}
+}
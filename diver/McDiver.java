@@ -4,18 +4,30 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Stack;
 
+import graph.AStarSearch;
+import graph.ContractedGraph;
+import graph.IdMap;
 import graph.Node;
 import graph.NodeStatus;
 import graph.ScramState;
 import graph.SeekState;
+import graph.SeekState.MoveStatus;
 import graph.SewerDiver;
+import graph.SewerGraph;
 
 public class McDiver extends SewerDiver {
 
+	/** The number of searches the scram planner runs; with 1, a single search is
+	 * run on the calling thread. */
+	public static final int SCRAM_SEARCHES = ScramPlanner.DEFAULT_SEARCHES;
+
+	/** The seed of the scram planner's randomized searches. So McDiver scrams the
+	 * same way every time, on any machine (unless the planner runs out of time). */
+	public static final long SCRAM_SEED = 2110;
+
 	/** Get to the ring in as few steps as possible. Once there, <br>
 	 * McDiver must return from this function in order to pick<br>
 	 * it up. If McDiver continues to move after finding the ring rather <br>
@@ -46,17 +58,17 @@ public class McDiver extends SewerDiver {
 		// DO NOT WRITE ALL THE CODE HERE. DO NOT MAKE THIS METHOD RECURSIVE.
 		// Instead, write your method elsewhere, with a good specification,
 		// and call it from this one.
-		dfswalk_optimized(state);
+		new FrontierSeeker(state).seek();
 	}
 	
 	
 	/** Unoptimized portion. Carry out the DFS algorithm for the Seek phase. */
 	public void dfswalk(SeekState state) {
 		Stack<NodeStatus> s = new Stack<NodeStatus>(); 
-		HashMap<Long, Long> visited_map = new HashMap<Long, Long>();
+		IdMap visited_map = new IdMap();
 		SeekState u = state; 
 		NodeStatus q;
-		Long q_prev;
+		long q_prev;
 		
 		if(u.distanceToRing()==0) return;
 		visited_map.put(u.currentLocation(), u.currentLocation());
@@ -68,9 +80,8 @@ public class McDiver extends SewerDiver {
 			q = s.pop();
 			if(!visited_map.containsKey(q.getId())) {
 				q_prev = u.currentLocation();
-				try{u.moveTo(q.getId());}
-				catch(IllegalArgumentException i) {
-					while(!u.neighbors().contains(q)) {
+				if(u.tryMoveTo(q.getId()) != MoveStatus.MOVED) {
+					while(!u.isAdjacent(q.getId())) {
 						u.moveTo(visited_map.get(u.currentLocation()));
 					}
 					q_prev = u.currentLocation();
@@ -89,10 +100,10 @@ public class McDiver extends SewerDiver {
 	 * of distance to ring. */
 	public void dfswalk_optimized(SeekState state) {
 		Stack<NodeStatus> s = new Stack<NodeStatus>(); 
-		HashMap<Long, Long> visited_map = new HashMap<Long, Long>();
+		IdMap visited_map = new IdMap();
 		SeekState u = state; 
 		NodeStatus q;
-		Long q_prev;
+		long q_prev;
 		
 		if(u.distanceToRing()==0) return;
 		visited_map.put(u.currentLocation(), u.currentLocation());
@@ -105,9 +116,8 @@ public class McDiver extends SewerDiver {
 			q = s.pop();
 			if(!visited_map.containsKey(q.getId())) {
 				q_prev = u.currentLocation();
-				try{u.moveTo(q.getId());}
-				catch(IllegalArgumentException i) {
-					while(!u.neighbors().contains(q)) {
+				if(u.tryMoveTo(q.getId()) != MoveStatus.MOVED) {
+					while(!u.isAdjacent(q.getId())) {
 						u.moveTo(visited_map.get(u.currentLocation()));
 					}
 					q_prev = u.currentLocation();
@@ -186,14 +196,29 @@ public class McDiver extends SewerDiver {
 		// possibilities, always keeping at least one method that always scrams
 		// in the prescribed number of steps.
 		
-		HashMap<Node, Integer> allnodes = format_map_optimized(state);
-		SP_optimized(state, allnodes);
+		SewerGraph g = SewerGraph.of(state.allNodes());
+		int start = g.index(state.currentNode());
+		int exit = g.index(state.exit());
+		List<Node> walk;
+		try {
+			ScramPlanner planner = new ScramPlanner(ContractedGraph.forScram(g, start, exit),
+				start, exit, state.stepsToGo());
+			walk = g.toNodes(SCRAM_SEARCHES > 1
+				? planner.plan(ScramPlanner.DEFAULT_TIME_BUDGET_MILLIS, SCRAM_SEED, SCRAM_SEARCHES)
+				: planner.plan(ScramPlanner.DEFAULT_TIME_BUDGET_MILLIS));
+		} catch (RuntimeException e) {
+			// The planner has not moved McDiver; the shortest path always gets out in time.
+			walk = compute_SP(state, g);
+		}
+		move_to_exit(walk, state);
 		
 	}
 	/** Part of the unoptimized portion of scram state.
-	 * Find the shortest path from the current node to exit node*/ 
-	public List<Node> compute_SP(ScramState state){
-		return A6.shortestPath(state.currentNode(), state.exit());		
+	 * Find the shortest path from the current node to exit node, using A* search
+	 * (guided by the Manhattan distance to the exit) over g, a snapshot of the graph
+	 * that the caller already has, since building one costs more than A* saves. */
+	public List<Node> compute_SP(ScramState state, SewerGraph g){
+		return A6.shortestPath(new AStarSearch(g), state.currentNode(), state.exit());
 	}
 	
 	/** Part of the unoptimized portion of Scram state.
@@ -204,62 +229,4 @@ public class McDiver extends SewerDiver {
 			state.moveTo(nodes.get(i));
 		}
 	}
-	
-	/** Part of the optimized portion for the Scram phase.
-	 * Adds all nodes from the allNodes collection into a HashMap.
-	 *  Remove the current node and exit node from the HashMap*/
-	public HashMap<Node, Integer> format_map_optimized(ScramState state) {
-		Collection<Node> u = state.allNodes();
-		HashMap<Node, Integer> Nodes = new HashMap<Node, Integer>();
-		for(Node i: u) {
-			Nodes.put(i, 1);
-		}
-		Nodes.remove(state.currentNode());
-		Nodes.remove(state.exit());
-		return Nodes;
-	}
-
-	/** Part of the optimized portion for the Scram State. Iterate through 
-	 * all nodes in the HashMap (which indicates which notes have not been visited). If 
-	 * the shortest path from the current node to unvisited node to exit node is less 
-	 * than the Steps to go, move state to unvisited node. */
-	public void SP_optimized(ScramState state, HashMap<Node, Integer> Nodes) {
-		HashMap<Node, Integer> u = Nodes;
-		int tpl; 
-		
-		for(Node i: u.keySet()) {
-			tpl = 0;
-			if(i.getTile().coins() > 500) {
-			List<Node> first = A6.shortestPath(state.currentNode(), i);
-			for(int q = 0; q < first.size()-1; q++) {
-				tpl = tpl + first.get(q).getEdge(first.get(q+1)).length();
-			}
-			
-			List<Node> second = A6.shortestPath(i, state.exit());
-			for(int y = 0; y < second.size()-1; y++) {
-				tpl = tpl + second.get(y).getEdge(second.get(y+1)).length();
-			}
-			 
-			if(tpl < state.stepsToGo()) {
-				for(int q=1; q<first.size(); q++) {
-					state.moveTo(first.get(q));
-					u.remove(first.get(q));
-				}
-			SP_optimized(state, u);	
-			return;}
-			}
-		}
-		
-		List<Node> end = A6.shortestPath(state.currentNode(), state.exit());
-			for(int r=1; r<end.size(); r++) {
-				state.moveTo(end.get(r));
-		}
-		return;
-	}
 	}
-			
-
-
-
-
-
@@ -0,0 +1,485 @@
+package diver;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import graph.ContractedGraph;
+import graph.ContractedSearch;
+import graph.SewerGraph;
+
+/** An instance plans a scram route: a walk from the current node to the exit, of <br>
+ * length at most the steps to go, that collects as many coins as possible.
+ *
+ * This is the orienteering problem. The planner works on a ContractedGraph, in which <br>
+ * every corridor of degree-2 nodes is one edge. The junctions with coins that could be <br>
+ * visited at all within the budget are the candidate stops; a route is a sequence of <br>
+ * stops, walked along shortest paths, and its length is the sum of the distances <br>
+ * between consecutive stops. Those distances are computed once, by one search of the <br>
+ * contracted graph per stop, and kept in a matrix, with each search's last edges so <br>
+ * that the paths can be unfolded into walks. A route is built by greedy insertion (always <br>
+ * inserting the stop with the most coins per extra step) and then improved by local <br>
+ * search: 2-opt (reversing a stretch of the route) and or-opt (moving a run of one to <br>
+ * three stops elsewhere) shorten it, and the steps they free are filled with more <br>
+ * insertions, until nothing improves or the time budget runs out.
+ *
+ * Every change is kept only if the route still fits the budget, and the route starts <br>
+ * as the shortest path to the exit, so the route returned is always feasible, whenever <br>
+ * the search stops.
+ *
+ * Greedy insertion is easily led astray, so plan(timeBudget, seed, searches) also runs <br>
+ * many searches in parallel, each but the first with the coins of every stop randomly <br>
+ * weighted when choosing what to insert, and keeps the best route found. */
+public final class ScramPlanner {
+
+	/** The default wall-clock time, in milliseconds, that plan() may spend searching. */
+	public static final long DEFAULT_TIME_BUDGET_MILLIS= 1000;
+
+	/** The most entries (stops times junctions) the table of last edges may have: <br>
+	 * 32M ints, i.e. 128MB. */
+	private static final long MAX_TABLE_ENTRIES= 1L << 25;
+
+	/** The most stops (including the start and the exit) that are considered; <br>
+	 * the matrix of distances between stops has the square of this many entries. */
+	private static final int MAX_STOPS= 2048;
+
+	/** The number of searches a parallel plan runs by default. */
+	public static final int DEFAULT_SEARCHES= 64;
+
+	/** In a randomized search, the weight of each stop's coins is scaled by a factor <br>
+	 * drawn uniformly from [1 - NOISE, 1 + NOISE]. */
+	private static final double NOISE= 0.5;
+
+	/** The stop numbers of the start and the exit. */
+	private static final int START= 0;
+	private static final int EXIT= 1;
+
+	/** The length of the longest route allowed. */
+	private final int steps;
+
+	/** The stops: node[0] is the start, node[1] is the exit, and node[2..] are the <br>
+	 * candidates, in decreasing order of coins. prize[s] is the number of coins at <br>
+	 * stop s (0 for the start and the exit). */
+	private final int[] node;
+	private final int[] prize;
+
+	/** The number of stops; dist[s*k + t] is the distance between stops s and t. */
+	private final int k;
+	private final int[] dist;
+
+	/** The contracted graph, and for stop s and junction c, hop[s*m + c] is the edge <br>
+	 * slot that ends a shortest path from stop s to c, where m is the number of <br>
+	 * junctions (-1 if c is stop s). */
+	private final ContractedGraph contracted;
+	private final int[] hop;
+
+	/** Constructor: a planner for routes over the contracted graph cg from node start <br>
+	 * to node exit (indexes in cg.graph()) of length at most steps. <br>
+	 * The distances between the start, the exit and the candidate stops are computed <br>
+	 * here, in parallel; on maps too large for all of them, the richest candidates are <br>
+	 * kept. The searches settle only junctions, so they are cheaper than over the whole <br>
+	 * graph, and on large maps more stops fit in the table. Only junctions <br>
+	 * can be stops, so cg should keep every node with coins, as <br>
+	 * ContractedGraph.forScram(g, start, exit) does; coins inside chains are not counted. <br>
+	 * Throw an IllegalArgumentException if start or exit is not a junction of cg. */
+	public ScramPlanner(ContractedGraph cg, int start, int exit, int steps) {
+		this.steps= steps;
+		SewerGraph g= cg.graph();
+		int m= cg.size();
+		if (cg.junctionOf(start) < 0 || cg.junctionOf(exit) < 0) {
+			throw new IllegalArgumentException("ScramPlanner: start and exit must be junctions");
+		}
+		ContractedSearch search= new ContractedSearch(cg);
+		int[] fromStart= new int[m];
+		search.run(cg.junctionOf(start));
+		for (int c= 0; c < m; c++ ) {
+			fromStart[c]= search.distanceTo(c);
+		}
+		search.run(cg.junctionOf(exit));
+
+		// The candidates: junctions with coins on some route that fits the budget.
+		Integer[] cands= new Integer[m];
+		int c= 0;
+		for (int j= 0; j < m; j++ ) {
+			int v= cg.node(j);
+			if (v == start || v == exit || g.coins(v) <= 0) continue;
+			long d= (long) fromStart[j] + search.distanceTo(j);
+			if (d <= steps) cands[c++ ]= v;
+		}
+		Arrays.sort(cands, 0, c, (a, b) -> Integer.compare(g.coins(b), g.coins(a)));
+		long maxStops= Math.min(MAX_STOPS, Math.max(2, MAX_TABLE_ENTRIES / Math.max(m, 1)));
+		k= (int) Math.min(c + 2, maxStops);
+
+		node= new int[k];
+		prize= new int[k];
+		node[START]= start;
+		node[EXIT]= exit;
+		for (int s= 2; s < k; s++ ) {
+			node[s]= cands[s - 2];
+			prize[s]= g.coins(node[s]);
+		}
+
+		// One search per stop, split into one contiguous chunk of stops per worker.
+		contracted= cg;
+		hop= new int[k * m];
+		dist= new int[k * k];
+		int chunks= Math.min(k, ForkJoinPool.getCommonPoolParallelism() + 1);
+		IntStream.range(0, chunks).parallel().forEach((w) -> {
+			ContractedSearch rows= new ContractedSearch(cg);
+			for (int s= k * w / chunks; s < k * (w + 1) / chunks; s++ ) {
+				rows.run(cg.junctionOf(node[s]));
+				for (int j= 0; j < m; j++ ) {
+					hop[s * m + j]= rows.edgeTo(j);
+				}
+				for (int t= 0; t < k; t++ ) {
+					dist[s * k + t]= rows.distanceTo(cg.junctionOf(node[t]));
+				}
+			}
+		});
+	}
+
+	/** Return the nodes of a shortest path from stop s to stop t, s first. */
+	private int[] leg(int s, int t) {
+		int base= s * contracted.size();
+		int last= contracted.junctionOf(node[t]);
+		int count= 0;
+		for (int e= hop[base + last]; e >= 0; e= hop[base + contracted.source(e)]) {
+			count++ ;
+		}
+		int[] edges= new int[count];
+		for (int e= hop[base + last]; e >= 0; e= hop[base + contracted.source(e)]) {
+			edges[--count]= e;
+		}
+		return contracted.unfold(contracted.junctionOf(node[s]), edges);
+	}
+
+	/** Return the number of candidate stops (nodes with coins) considered. */
+	public int candidateCount() {
+		return k - 2;
+	}
+
+	/** Search for a route for at most timeBudgetMillis milliseconds and return its walk: <br>
+	 * the nodes from the start to the exit, each adjacent to the next, with the start <br>
+	 * first and the exit last. Its length is at most steps, provided that the shortest <br>
+	 * path from the start to the exit is. */
+	public int[] plan(long timeBudgetMillis) {
+		Route r= new Route(System.nanoTime() + timeBudgetMillis * 1_000_000, 0, null);
+		r.improve();
+		return r.walk();
+	}
+
+	/** Run searches searches for at most timeBudgetMillis milliseconds on the common <br>
+	 * ForkJoinPool, and return the walk (as in plan(long)) of the best route found: <br>
+	 * most coins, then shortest, then first search. <br>
+	 * Search 0 is the one plan(long) runs; search i > 0 weights coins with a Random <br>
+	 * seeded with seed + i. So unless the time budget runs out, the walk depends only <br>
+	 * on seed and searches, not on the machine or on how the searches are scheduled. <br>
+	 * The common pool is shared by every game being played, so concurrent plans do <br>
+	 * not start more workers than there are processors. */
+	public int[] plan(long timeBudgetMillis, long seed, int searches) {
+		long deadline= System.nanoTime() + timeBudgetMillis * 1_000_000;
+		AtomicReference<Route> best= new AtomicReference<>();
+		ForkJoinPool.commonPool().invoke(new Starts(0, Math.max(searches, 1), deadline, seed, best));
+		return best.get().walk();
+	}
+
+	/** An instance runs searches lo..hi-1, splitting the range among workers, and <br>
+	 * offers each route found to best. */
+	private final class Starts extends RecursiveAction {
+		private static final long serialVersionUID= 1L;
+
+		private final int lo;
+		private final int hi;
+		private final long deadline;
+		private final long seed;
+		private final AtomicReference<Route> best;
+
+		/** Constructor: searches lo..hi-1, with the given deadline and seed, sharing best. */
+		Starts(int lo, int hi, long deadline, long seed, AtomicReference<Route> best) {
+			this.lo= lo;
+			this.hi= hi;
+			this.deadline= deadline;
+			this.seed= seed;
+			this.best= best;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo > 1) {
+				int mid= (lo + hi) >>> 1;
+				invokeAll(new Starts(lo, mid, deadline, seed, best),
+					new Starts(mid, hi, deadline, seed, best));
+				return;
+			}
+			// Even when time is up, the unimproved route is offered, so best is set.
+			Route r= new Route(deadline, lo, lo == 0 ? null : new Random(seed + lo));
+			r.improve();
+			best.accumulateAndGet(r, (a, b) -> a == null || b.beats(a) ? b : a);
+		}
+	}
+
+	/** An instance is a route under construction: stops stop[0..len-1], with stop[0] the <br>
+	 * start and stop[len-1] the exit, and the search that improves it. */
+	private final class Route {
+		/** The value of System.nanoTime() at which the search must stop. */
+		private final long deadline;
+
+		/** The number of this search, and the weight used for the coins of each stop <br>
+		 * when choosing which to insert. */
+		private final int number;
+		private final long[] weight= new long[k];
+
+		private int[] stop= new int[16];
+		private int len;
+		/** in[s] is true iff stop s is on the route. */
+		private final boolean[] in= new boolean[k];
+		/** The length of the route and the coins at its stops. */
+		private int length;
+		private int coins;
+
+		/** For each stop s not on the route: inserting s right after stop after[s] <br>
+		 * lengthens the route by extra[s], the least possible. */
+		private final int[] after= new int[k];
+		private final int[] extra= new int[k];
+
+		/** Constructor: the route straight from the start to the exit, to be improved <br>
+		 * until deadline by search number; the coins are weighted randomly using rand, <br>
+		 * or not at all if rand is null. */
+		Route(long deadline, int number, Random rand) {
+			this.deadline= deadline;
+			this.number= number;
+			for (int s= 2; s < k; s++ ) {
+				double factor= rand == null ? 1 : 1 - NOISE + 2 * NOISE * rand.nextDouble();
+				weight[s]= Math.round(prize[s] * factor * 1024);
+			}
+			stop[0]= START;
+			stop[1]= EXIT;
+			len= 2;
+			in[START]= true;
+			in[EXIT]= true;
+			length= d(START, EXIT);
+		}
+
+		/** Return the distance between stops s and t. */
+		private int d(int s, int t) {
+			return dist[s * k + t];
+		}
+
+		/** Return true iff this route is better than r: it has more coins, or as many <br>
+		 * and is shorter, or is as good and was found by an earlier search. */
+		boolean beats(Route r) {
+			if (coins != r.coins) return coins > r.coins;
+			if (length != r.length) return length < r.length;
+			return number < r.number;
+		}
+
+		/** Return true iff the time budget is used up. */
+		private boolean timeUp() {
+			return System.nanoTime() - deadline >= 0;
+		}
+
+		/** Alternately fill the route with insertions and shorten it with 2-opt and <br>
+		 * or-opt, until neither helps or time is up. */
+		void improve() {
+			do {
+				insertAll();
+			} while (!timeUp() && (twoOpt() | orOpt()));
+		}
+
+		/** Insert stops, each time the one with the most (weighted) coins per extra step <br>
+		 * at its cheapest position, until no more stops fit or time is up. */
+		private void insertAll() {
+			for (int s= 2; s < k; s++ ) {
+				if (!in[s]) cheapestInsertion(s);
+			}
+			while (!timeUp()) {
+				int best= -1;
+				long bestWeight= 0;
+				long bestCost= 1;
+				for (int s= 2; s < k; s++ ) {
+					// Compare weight/(extra+1) without dividing.
+					if (!in[s] && length + extra[s] <= steps &&
+						weight[s] * bestCost > bestWeight * (extra[s] + 1L)) {
+						best= s;
+						bestWeight= weight[s];
+						bestCost= extra[s] + 1L;
+					}
+				}
+				if (best < 0) return;
+				insert(best);
+			}
+		}
+
+		/** Set after[s] and extra[s] to the cheapest place to insert stop s. */
+		private void cheapestInsertion(int s) {
+			extra[s]= Integer.MAX_VALUE;
+			for (int i= 0; i + 1 < len; i++ ) {
+				offer(s, stop[i], stop[i + 1]);
+			}
+		}
+
+		/** Make inserting stop s between consecutive stops a and b its cheapest <br>
+		 * insertion if it is cheaper than the one recorded. */
+		private void offer(int s, int a, int b) {
+			int delta= d(a, s) + d(s, b) - d(a, b);
+			if (delta < extra[s]) {
+				extra[s]= delta;
+				after[s]= a;
+			}
+		}
+
+		/** Insert stop s right after stop after[s], and update the cheapest insertions <br>
+		 * of the stops not on the route: only those that were to go between after[s] <br>
+		 * and its successor must be recomputed from scratch. */
+		private void insert(int s) {
+			int a= after[s];
+			int pos= 1;
+			while (stop[pos - 1] != a) {
+				pos++ ;
+			}
+			int b= stop[pos];
+			if (len == stop.length) stop= Arrays.copyOf(stop, 2 * len);
+			System.arraycopy(stop, pos, stop, pos + 1, len - pos);
+			stop[pos]= s;
+			len++ ;
+			in[s]= true;
+			length+= extra[s];
+			coins+= prize[s];
+
+			for (int t= 2; t < k; t++ ) {
+				if (in[t]) continue;
+				if (after[t] == a) {
+					cheapestInsertion(t);
+				} else {
+					offer(t, a, s);
+					offer(t, s, b);
+				}
+			}
+		}
+
+		/** Apply improving 2-opt moves (reverse stop[i..j]) until there are none or time <br>
+		 * is up. Return true iff the route got shorter. */
+		private boolean twoOpt() {
+			boolean shorter= false;
+			boolean again= true;
+			while (again && !timeUp()) {
+				again= false;
+				for (int i= 1; i < len - 1; i++ ) {
+					int a= stop[i - 1];
+					int b= stop[i];
+					for (int j= i + 1; j < len - 1; j++ ) {
+						int c= stop[j];
+						int e= stop[j + 1];
+						int delta= d(a, c) + d(b, e) - d(a, b) - d(c, e);
+						if (delta < 0) {
+							reverse(i, j);
+							length+= delta;
+							shorter= true;
+							again= true;
+							b= stop[i];
+						}
+					}
+				}
+			}
+			return shorter;
+		}
+
+		/** Reverse stop[i..j]. */
+		private void reverse(int i, int j) {
+			for (; i < j; i++ , j-- ) {
+				int tmp= stop[i];
+				stop[i]= stop[j];
+				stop[j]= tmp;
+			}
+		}
+
+		/** Apply improving or-opt moves (move a run of 1 to 3 stops, in either direction, <br>
+		 * to between two other consecutive stops) until there are none or time is up. <br>
+		 * Return true iff the route got shorter. */
+		private boolean orOpt() {
+			boolean shorter= false;
+			boolean again= true;
+			while (again && !timeUp()) {
+				again= false;
+				for (int seg= 1; seg <= 3; seg++ ) {
+					for (int i= 1; i + seg < len; i++ ) {
+						if (moveRun(i, seg)) {
+							shorter= true;
+							again= true;
+						}
+					}
+				}
+			}
+			return shorter;
+		}
+
+		/** Move run stop[i..i+seg-1] to the position that shortens the route the most, <br>
+		 * if any does. Return true iff it was moved. <br>
+		 * Precondition: the run contains neither the start nor the exit. */
+		private boolean moveRun(int i, int seg) {
+			int first= stop[i];
+			int last= stop[i + seg - 1];
+			int prev= stop[i - 1];
+			int next= stop[i + seg];
+			int removed= d(prev, first) + d(last, next) - d(prev, next);
+
+			int bestDelta= 0;
+			int bestPos= -1;
+			boolean bestReversed= false;
+			for (int p= 0; p + 1 < len; p++ ) {
+				if (p >= i - 1 && p < i + seg) continue;
+				int a= stop[p];
+				int b= stop[p + 1];
+				int forward= d(a, first) + d(last, b) - d(a, b) - removed;
+				int backward= d(a, last) + d(first, b) - d(a, b) - removed;
+				if (forward < bestDelta) {
+					bestDelta= forward;
+					bestPos= p;
+					bestReversed= false;
+				}
+				if (backward < bestDelta) {
+					bestDelta= backward;
+					bestPos= p;
+					bestReversed= true;
+				}
+			}
+			if (bestPos < 0) return false;
+
+			int[] run= Arrays.copyOfRange(stop, i, i + seg);
+			if (bestReversed) {
+				for (int a= 0, b= seg - 1; a < b; a++ , b-- ) {
+					int tmp= run[a];
+					run[a]= run[b];
+					run[b]= tmp;
+				}
+			}
+			// Remove the run, then insert it after the stop that was at bestPos.
+			System.arraycopy(stop, i + seg, stop, i, len - i - seg);
+			len-= seg;
+			int at= (bestPos < i ? bestPos : bestPos - seg) + 1;
+			System.arraycopy(stop, at, stop, at + seg, len - at);
+			System.arraycopy(run, 0, stop, at, seg);
+			len+= seg;
+			length+= bestDelta;
+			return true;
+		}
+
+		/** Return the walk of this route: the concatenated shortest paths between <br>
+		 * its consecutive stops. Every edge has length at least 1, so the walk has at <br>
+		 * most length + 1 nodes. */
+		int[] walk() {
+			int[] walk= new int[length + 1];
+			int w= 0;
+			walk[w++ ]= node[stop[0]];
+			for (int i= 0; i + 1 < len; i++ ) {
+				int[] leg= leg(stop[i], stop[i + 1]);
+				System.arraycopy(leg, 1, walk, w, leg.length - 1);
+				w+= leg.length - 1;
+			}
+			return Arrays.copyOf(walk, w);
+		}
+	}
+}
@@ -0,0 +1,137 @@
+package graph;
+
+/** An instance runs A* search for point-to-point shortest paths over a SewerGraph.
+ *
+ * A* is Dijkstra's algorithm with the priority of a frontier node v being its distance <br>
+ * from the source plus a lower bound (the heuristic) on its distance to the target. <br>
+ * With a good bound, far fewer nodes are settled than with Dijkstra's algorithm, <br>
+ * which settles every node closer to the source than the target is.
+ *
+ * The default heuristic is the Manhattan distance between the tiles times the smallest <br>
+ * edge weight: every edge joins adjacent tiles, so it never overestimates. <br>
+ * Landmarks (e.g. Sewers.landmarks()) give a much tighter bound on maps with walls. <br>
+ * Like DijkstraSearch, an instance reuses its arrays from query to query and is not <br>
+ * thread-safe. */
+public final class AStarSearch implements PathSearch {
+
+	/** An implementation is a lower bound on distances to a target node. */
+	@FunctionalInterface
+	public interface Heuristic {
+		/** Return a lower bound on the length of a shortest path from node v to node target. <br>
+		 * For the search to be efficient it should also be consistent: for every edge (u, v) <br>
+		 * of length w, estimate(u, t) <= w + estimate(v, t). */
+		int estimate(int v, int target);
+	}
+
+	/** Return the Manhattan-distance heuristic for g: the grid distance between the <br>
+	 * tiles times the smallest edge weight of g. */
+	public static Heuristic manhattan(SewerGraph g) {
+		int w= g.minWeight();
+		return (v, target) -> w * g.manhattan(v, target);
+	}
+
+	/** The graph being searched and the heuristic guiding the search. */
+	private final SewerGraph graph;
+	private final Heuristic heuristic;
+
+	/** The frontier set; the priority of node v is dist[v] + (v's heuristic estimate). */
+	private final IntMinHeap frontier;
+
+	/** For a node v reached in the current round: dist[v] is the length of the shortest <br>
+	 * known path from the source to v, and pred[v] is v's predecessor on it (-1 for the <br>
+	 * source). reached[v] = round iff v was reached in the current round, and <br>
+	 * settled[v] = round iff v is settled. */
+	private final int[] dist;
+	private final int[] pred;
+	private final int[] reached;
+	private final int[] settled;
+	private int round;
+
+	/** The number of nodes settled by the last query. */
+	private int settledCount;
+
+	/** Constructor: a search over g guided by the Manhattan-distance heuristic. */
+	public AStarSearch(SewerGraph g) {
+		this(g, manhattan(g));
+	}
+
+	/** Constructor: a search over g guided by heuristic h. */
+	public AStarSearch(SewerGraph g, Heuristic h) {
+		graph= g;
+		heuristic= h;
+		int n= g.size();
+		frontier= new IntMinHeap(n);
+		dist= new int[n];
+		pred= new int[n];
+		reached= new int[n];
+		settled= new int[n];
+	}
+
+	@Override
+	public SewerGraph graph() {
+		return graph;
+	}
+
+	/** Run A* from node src to node dst, returning the length of a shortest path <br>
+	 * or -1 if there is none. <br>
+	 * If the heuristic is admissible but not consistent, a settled node may be <br>
+	 * reached again by a shorter path; it is then put back in the frontier, <br>
+	 * so the result is still exact. */
+	private int run(int src, int dst) {
+		frontier.clear();
+		round++ ;
+		settledCount= 0;
+		reached[src]= round;
+		dist[src]= 0;
+		pred[src]= -1;
+		frontier.add(src, heuristic.estimate(src, dst));
+
+		while (!frontier.isEmpty()) {
+			int f= frontier.poll();
+			settled[f]= round;
+			settledCount++ ;
+			if (f == dst) return dist[f];
+
+			int fDist= dist[f];
+			for (int e= graph.firstEdge(f); e < graph.endEdge(f); e++ ) {
+				int w= graph.target(e);
+				int wDist= fDist + graph.weight(e);
+				if (reached[w] != round) {
+					reached[w]= round;
+				} else if (wDist >= dist[w]) {
+					continue;
+				}
+				dist[w]= wDist;
+				pred[w]= f;
+				if (settled[w] == round) settled[w]= 0;
+				frontier.addOrDecrease(w, wDist + heuristic.estimate(w, dst));
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int distance(int src, int dst) {
+		return run(src, dst);
+	}
+
+	@Override
+	public int[] path(int src, int dst) {
+		if (run(src, dst) < 0) return new int[0];
+		int len= 1;
+		for (int p= dst; pred[p] >= 0; p= pred[p]) {
+			len++ ;
+		}
+		int[] path= new int[len];
+		for (int p= dst; p >= 0; p= pred[p]) {
+			path[--len]= p;
+		}
+		return path;
+	}
+
+	/** Return the number of nodes expanded (settled) by the last query. */
+	@Override
+	public int settledCount() {
+		return settledCount;
+	}
+}
@@ -0,0 +1,147 @@
+package graph;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/** An instance runs many headless games, each in its own GameState, concurrently <br>
+ * on a pool of worker threads, and summarizes how the sewer diver did.
+ *
+ * The seeds of the games are fixed before any game starts (by the same chain <br>
+ * that GameState.main uses: each seed is new Random(previous).nextLong()), and <br>
+ * results are reported in seed order, so the output for a given first seed does <br>
+ * not depend on the number of threads or on how the games are scheduled. */
+public final class BatchRunner {
+
+	/** An instance holds the measurements of one finished game. */
+	public static final class Result {
+		public final long seed;
+		public final int score;
+		public final int coins;
+		public final int seekSteps;
+		public final int minSeekSteps;
+		public final int scramStepsUsed;
+		public final int scramStepsBudget;
+		public final long seekNanos;
+		public final long scramNanos;
+		public final boolean succeeded;
+
+		/** Constructor: the measurements of game, which has been run. */
+		private Result(GameState game) {
+			seed= game.getSeed();
+			score= game.getScore();
+			coins= game.getCoinsCollected();
+			seekSteps= game.getSeekSteps();
+			minSeekSteps= game.getMinSeekSteps();
+			scramStepsUsed= game.getScramStepsUsed();
+			scramStepsBudget= game.getScramStepsBudget();
+			seekNanos= game.getSeekNanos();
+			scramNanos= game.getScramNanos();
+			succeeded= game.getSeekSucceeded() && game.getScramSucceeded();
+		}
+
+		/** Return this result as one tab-separated line. */
+		@Override
+		public String toString() {
+			return seed + "\t" + score + "\t" + coins + "\t" + seekSteps + "/" + minSeekSteps +
+				"\t" + scramStepsUsed + "/" + scramStepsBudget + "\t" + seekNanos / 1000 +
+				"us\t" + scramNanos / 1000 + "us" + (succeeded ? "" : "\tFAILED");
+		}
+	}
+
+	/** The seeds of the games, in order. */
+	private final long[] seeds;
+
+	/** The number of worker threads. */
+	private final int threads;
+
+	/** Produces a new sewer diver for each game. */
+	private final Supplier<SewerDiver> divers;
+
+	/** Constructor: a runner for count games starting with seed firstSeed <br>
+	 * (a random seed if firstSeed is 0), on the given number of worker threads, <br>
+	 * each game solved by a new sewer diver from divers. */
+	public BatchRunner(long firstSeed, int count, int threads, Supplier<SewerDiver> divers) {
+		seeds= new long[count];
+		long seed= firstSeed != 0 ? firstSeed : new Random().nextLong();
+		for (int i= 0; i < count; i++ ) {
+			seeds[i]= seed;
+			seed= new Random(seed).nextLong();
+		}
+		this.threads= Math.max(threads, 1);
+		this.divers= divers;
+	}
+
+	/** Run all the games and return their results, in seed order. <br>
+	 * The games are quiet: they print nothing to the console. */
+	public List<Result> run() throws InterruptedException {
+		ExecutorService pool= Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Result>> futures= new ArrayList<>(seeds.length);
+			for (long seed : seeds) {
+				futures.add(pool.submit(() -> {
+					GameState game= new GameState(seed, false, divers.get());
+					game.setQuiet(true);
+					game.run();
+					return new Result(game);
+				}));
+			}
+			List<Result> results= new ArrayList<>(seeds.length);
+			for (Future<Result> f : futures) {
+				try {
+					results.add(f.get());
+				} catch (ExecutionException e) {
+					throw new IllegalStateException("A game failed to run", e.getCause());
+				}
+			}
+			return results;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/** Print to out one line per result and then, for each measurement, <br>
+	 * its mean and its percentiles over all results. */
+	public static void report(List<Result> results, PrintStream out) {
+		out.println("seed\tscore\tcoins\tseek/min\tscram used/budget\tseek time\tscram time");
+		for (Result r : results) {
+			out.println(r);
+		}
+		out.println();
+		out.println("measure\tmean\tmin\tp50\tp90\tp99\tmax");
+		summarize(out, "score", results, (r) -> r.score);
+		summarize(out, "coins", results, (r) -> r.coins);
+		summarize(out, "seek steps", results, (r) -> r.seekSteps);
+		summarize(out, "seek/min %", results, (r) -> 100L * r.seekSteps / Math.max(r.minSeekSteps, 1));
+		summarize(out, "scram steps", results, (r) -> r.scramStepsUsed);
+		summarize(out, "seek us", results, (r) -> r.seekNanos / 1000);
+		summarize(out, "scram us", results, (r) -> r.scramNanos / 1000);
+		long failures= results.stream().filter((r) -> !r.succeeded).count();
+		out.println("failed games: " + failures + " of " + results.size());
+	}
+
+	/** Print to out the mean and percentiles of measure over results, labeled name. */
+	private static void summarize(PrintStream out, String name, List<Result> results,
+		ToLongFunction<Result> measure) {
+		long[] values= results.stream().mapToLong(measure).sorted().toArray();
+		if (values.length == 0) return;
+		double mean= Arrays.stream(values).average().getAsDouble();
+		out.println(name + "\t" + Math.round(mean) + "\t" + values[0] + "\t" +
+			percentile(values, 50) + "\t" + percentile(values, 90) + "\t" +
+			percentile(values, 99) + "\t" + values[values.length - 1]);
+	}
+
+	/** Return the p-th percentile (nearest rank) of sorted, which is not empty. */
+	private static long percentile(long[] sorted, int p) {
+		int rank= (int) Math.ceil(p / 100.0 * sorted.length);
+		return sorted[Math.max(rank, 1) - 1];
+	}
+}
@@ -0,0 +1,160 @@
+package graph;
+
+/** An instance runs bidirectional Dijkstra search for point-to-point shortest paths <br>
+ * over a SewerGraph.
+ *
+ * One search grows from the source and another from the target (the graph is <br>
+ * undirected, so both use the same edges); each step advances the one whose frontier <br>
+ * is closer. Whenever an edge joins a node reached from the source to a node reached <br>
+ * from the target, the path through it is a candidate; the best candidate is a <br>
+ * shortest path once the two smallest frontier priorities add up to at least its <br>
+ * length. On open grids the two searches each cover a disk of about half the radius, <br>
+ * settling about half as many nodes as one search from the source.
+ *
+ * As in DijkstraSearch, each frontier set is a bucket queue by default or an indexed <br>
+ * heap, and an instance reuses its arrays from query to query and is not thread-safe. */
+public final class BidirectionalSearch implements PathSearch {
+
+	/** The graph being searched. */
+	private final SewerGraph graph;
+
+	/** The two searches: index 0 grows from the source, index 1 from the target. <br>
+	 * For side s and a node v reached by it in the current round: dist[s][v] is the <br>
+	 * length of the shortest known path between v and that side's root, and <br>
+	 * pred[s][v] is the next node on it toward the root (-1 for the root). <br>
+	 * reached[s][v] = round iff v was reached by side s in the current round. */
+	private final IntFrontier[] frontier= new IntFrontier[2];
+	private final int[][] dist= new int[2][];
+	private final int[][] pred= new int[2][];
+	private final int[][] reached= new int[2][];
+	private int round;
+
+	/** The length of the best path found by the last query and the node where <br>
+	 * its two halves meet (-1 if none). */
+	private int best;
+	private int meet;
+
+	/** The number of nodes settled by the last query, counting both sides. */
+	private int settledCount;
+
+	/** Constructor: a search over graph g using bucket queues. */
+	public BidirectionalSearch(SewerGraph g) {
+		this(g, DijkstraSearch.Engine.BUCKET);
+	}
+
+	/** Constructor: a search over graph g whose frontier sets are given by engine. */
+	public BidirectionalSearch(SewerGraph g, DijkstraSearch.Engine engine) {
+		graph= g;
+		int n= g.size();
+		for (int s= 0; s < 2; s++ ) {
+			frontier[s]= engine == DijkstraSearch.Engine.HEAP ? new IntMinHeap(n) :
+				new BucketQueue(n, g.maxWeight());
+			dist[s]= new int[n];
+			pred[s]= new int[n];
+			reached[s]= new int[n];
+		}
+	}
+
+	@Override
+	public SewerGraph graph() {
+		return graph;
+	}
+
+	/** Search from src and dst at once, setting best and meet. */
+	private void run(int src, int dst) {
+		round++ ;
+		settledCount= 0;
+		best= Integer.MAX_VALUE;
+		meet= -1;
+		start(0, src);
+		start(1, dst);
+		if (src == dst) {
+			best= 0;
+			meet= src;
+			return;
+		}
+
+		while (!frontier[0].isEmpty() && !frontier[1].isEmpty()) {
+			int top0= frontier[0].peekPriority();
+			int top1= frontier[1].peekPriority();
+			if ((long) top0 + top1 >= best) return;
+			expand(top0 <= top1 ? 0 : 1);
+		}
+	}
+
+	/** Make node root the only reached node of side s. */
+	private void start(int s, int root) {
+		frontier[s].clear();
+		reached[s][root]= round;
+		dist[s][root]= 0;
+		pred[s][root]= -1;
+		frontier[s].add(root, 0);
+	}
+
+	/** Settle the closest frontier node of side s and relax its edges, <br>
+	 * updating best and meet when an edge reaches the other side. */
+	private void expand(int s) {
+		int[] d= dist[s];
+		int[] otherD= dist[1 - s];
+		int[] otherReached= reached[1 - s];
+		int f= frontier[s].poll();
+		settledCount++ ;
+
+		int fDist= d[f];
+		for (int e= graph.firstEdge(f); e < graph.endEdge(f); e++ ) {
+			int w= graph.target(e);
+			int wDist= fDist + graph.weight(e);
+			if (reached[s][w] != round) {
+				reached[s][w]= round;
+				d[w]= wDist;
+				pred[s][w]= f;
+				frontier[s].add(w, wDist);
+			} else if (wDist < d[w]) {
+				// w is not settled (settled distances are final), so it is in the frontier.
+				d[w]= wDist;
+				pred[s][w]= f;
+				frontier[s].decrease(w, wDist);
+			}
+			if (otherReached[w] == round && d[w] + otherD[w] < best) {
+				best= d[w] + otherD[w];
+				meet= w;
+			}
+		}
+	}
+
+	@Override
+	public int distance(int src, int dst) {
+		run(src, dst);
+		return meet < 0 ? -1 : best;
+	}
+
+	@Override
+	public int[] path(int src, int dst) {
+		run(src, dst);
+		if (meet < 0) return new int[0];
+
+		int len= 1;
+		for (int p= meet; pred[0][p] >= 0; p= pred[0][p]) {
+			len++ ;
+		}
+		int half= len;
+		for (int p= meet; pred[1][p] >= 0; p= pred[1][p]) {
+			len++ ;
+		}
+		int[] path= new int[len];
+		int k= half;
+		for (int p= meet; p >= 0; p= pred[0][p]) {
+			path[--k]= p;
+		}
+		k= half;
+		for (int p= pred[1][meet]; p >= 0; p= pred[1][p]) {
+			path[k++ ]= p;
+		}
+		return path;
+	}
+
+	@Override
+	public int settledCount() {
+		return settledCount;
+	}
+}
@@ -0,0 +1,244 @@
+package graph;
+
+import java.util.Arrays;
+
+/** An instance is the decomposition of a SewerGraph into its biconnected components <br>
+ * (blocks), with its bridges and articulation points, computed in linear time by <br>
+ * Tarjan's algorithm.
+ *
+ * An articulation point is a node whose removal disconnects the graph; a bridge is an <br>
+ * edge whose removal does; a block is a maximal set of edges any two of which lie on <br>
+ * a common cycle (a bridge is a block by itself). On generated mazes most of the map <br>
+ * hangs off bridges: whatever lies beyond one can only be visited by a round trip <br>
+ * through it (see BranchGains).
+ *
+ * The depth-first search is iterative, with an explicit stack, so it handles maps of any <br>
+ * size. It starts at the given root and then at each node not yet reached, so every <br>
+ * connected component has a root. The depth-first tree is kept: for a bridge from u to <br>
+ * a child c in it, the nodes beyond the bridge are exactly the subtree of c, which is <br>
+ * the range of the postorder ending at c (see postorder(), subtreeSize()). */
+public final class BlockDecomposition {
+
+	/** The graph decomposed and the root of the first search. */
+	private final SewerGraph graph;
+	private final int root;
+
+	/** For each node v: parent[v] is its parent in the depth-first forest (-1 for a root), <br>
+	 * parentEdge[v] is the edge slot from parent[v] to v (-1 for a root), post[v] is its <br>
+	 * position in the postorder, size[v] is the number of nodes in its subtree, and <br>
+	 * articulation[v] is true iff v is an articulation point. order lists the nodes in <br>
+	 * postorder: every node comes after all the nodes of its subtree. */
+	private final int[] parent;
+	private final int[] parentEdge;
+	private final int[] post;
+	private final int[] size;
+	private final boolean[] articulation;
+	private final int[] order;
+
+	/** For each edge slot e: block[e] is the block of its edge (the two slots of an edge <br>
+	 * are in the same block), and bridge[e] is true iff its edge is a bridge. */
+	private final int[] block;
+	private final boolean[] bridge;
+
+	/** The number of blocks, bridges (edges, not slots) and articulation points. */
+	private final int blockCount;
+	private final int bridgeCount;
+	private final int articulationCount;
+
+	/** Constructor: the decomposition of g, searching first from node root. <br>
+	 * Throw an IllegalArgumentException if root is not a node of g. */
+	public BlockDecomposition(SewerGraph g, int root) {
+		int n= g.size();
+		if (root < 0 || root >= n) throw new IllegalArgumentException("no node " + root);
+		graph= g;
+		this.root= root;
+		parent= new int[n];
+		parentEdge= new int[n];
+		post= new int[n];
+		size= new int[n];
+		articulation= new boolean[n];
+		order= new int[n];
+		block= new int[g.edgeCount()];
+		bridge= new boolean[g.edgeCount()];
+		Arrays.fill(block, -1);
+
+		// disc[v] is the discovery time of v (-1 if not reached); low[v] is the smallest
+		// discovery time reachable from v's subtree by tree edges and then one back edge.
+		// next[v] is the next edge slot of v to scan. The stack holds the path of the
+		// search; edges holds the slots of the edges of blocks not yet closed, and
+		// from[i] is the node edges[i] leaves.
+		int[] disc= new int[n];
+		int[] low= new int[n];
+		int[] next= new int[n];
+		int[] stack= new int[n];
+		int[] edges= new int[g.edgeCount()];
+		int[] from= new int[g.edgeCount()];
+		Arrays.fill(disc, -1);
+		int time= 0;
+		int done= 0;
+		int blocks= 0;
+		int bridges= 0;
+		int cuts= 0;
+		for (int i= 0; i < n; i++ ) {
+			// Search from root first, in place of node 0, which takes root's turn.
+			int r= i == 0 ? root : i == root ? 0 : i;
+			if (disc[r] >= 0) continue;
+			int top= 0;
+			int edgeTop= 0;
+			int rootChildren= 0;
+			stack[top++ ]= r;
+			parent[r]= -1;
+			parentEdge[r]= -1;
+			disc[r]= low[r]= time++ ;
+			next[r]= g.firstEdge(r);
+			while (top > 0) {
+				int v= stack[top - 1];
+				if (next[v] < g.endEdge(v)) {
+					int e= next[v]++ ;
+					int w= g.target(e);
+					if (disc[w] < 0) {
+						parent[w]= v;
+						parentEdge[w]= e;
+						disc[w]= low[w]= time++ ;
+						next[w]= g.firstEdge(w);
+						from[edgeTop]= v;
+						edges[edgeTop++ ]= e;
+						stack[top++ ]= w;
+						if (v == r) rootChildren++ ;
+					} else if (w != parent[v] && disc[w] < disc[v]) {
+						// A back edge to an ancestor (each is seen once, from below).
+						low[v]= Math.min(low[v], disc[w]);
+						from[edgeTop]= v;
+						edges[edgeTop++ ]= e;
+					}
+					continue;
+				}
+				// v is finished.
+				top-- ;
+				post[v]= done;
+				order[done++ ]= v;
+				size[v]= 1;
+				int p= parent[v];
+				if (p < 0) continue;
+				low[p]= Math.min(low[p], low[v]);
+				if (low[v] >= disc[p]) {
+					// p separates v's subtree from the rest: close the block of edge p-v.
+					if (p != r && !articulation[p]) {
+						articulation[p]= true;
+						cuts++ ;
+					}
+					int e;
+					do {
+						e= edges[--edgeTop];
+						block[e]= blocks;
+						block[twin(from[edgeTop], e)]= blocks;
+					} while (e != parentEdge[v]);
+					blocks++ ;
+					if (low[v] > disc[p]) {
+						bridge[parentEdge[v]]= true;
+						bridge[twin(p, parentEdge[v])]= true;
+						bridges++ ;
+					}
+				}
+			}
+			if (rootChildren > 1) {
+				articulation[r]= true;
+				cuts++ ;
+			}
+		}
+		for (int k= 0; k < n; k++ ) {
+			int v= order[k];
+			if (parent[v] >= 0) size[parent[v]]+= size[v];
+		}
+		blockCount= blocks;
+		bridgeCount= bridges;
+		articulationCount= cuts;
+	}
+
+	/** Return the edge slot for the same edge as slot e, which leaves node v, <br>
+	 * in the other direction. */
+	private int twin(int v, int e) {
+		int w= graph.target(e);
+		for (int f= graph.firstEdge(w); f < graph.endEdge(w); f++ ) {
+			if (graph.target(f) == v) return f;
+		}
+		throw new IllegalStateException("edge slot " + e + " has no reverse");
+	}
+
+	/** Return the graph decomposed. */
+	public SewerGraph graph() {
+		return graph;
+	}
+
+	/** Return the root of the first depth-first search. */
+	public int root() {
+		return root;
+	}
+
+	/** Return the number of blocks (biconnected components). */
+	public int blockCount() {
+		return blockCount;
+	}
+
+	/** Return the number of bridges. */
+	public int bridgeCount() {
+		return bridgeCount;
+	}
+
+	/** Return the number of articulation points. */
+	public int articulationCount() {
+		return articulationCount;
+	}
+
+	/** Return the block of the edge of slot e. */
+	public int block(int e) {
+		return block[e];
+	}
+
+	/** Return true iff the edge of slot e is a bridge. */
+	public boolean isBridge(int e) {
+		return bridge[e];
+	}
+
+	/** Return true iff node v is an articulation point. */
+	public boolean isArticulation(int v) {
+		return articulation[v];
+	}
+
+	/** Return the parent of node v in the depth-first forest, or -1 if v is a root. */
+	public int parent(int v) {
+		return parent[v];
+	}
+
+	/** Return the edge slot from parent(v) to v, or -1 if v is a root. */
+	public int parentEdge(int v) {
+		return parentEdge[v];
+	}
+
+	/** Return true iff the edge from v's parent to v is a bridge, so that v's subtree is <br>
+	 * a branch that can be left only through that edge. */
+	public boolean hangsOffBridge(int v) {
+		return parentEdge[v] >= 0 && bridge[parentEdge[v]];
+	}
+
+	/** Return the position of node v in the postorder. */
+	public int postIndex(int v) {
+		return post[v];
+	}
+
+	/** Return the node at position k of the postorder. */
+	public int postorder(int k) {
+		return order[k];
+	}
+
+	/** Return the number of nodes in v's subtree, which are the nodes at positions <br>
+	 * postIndex(v) - subtreeSize(v) + 1 .. postIndex(v) of the postorder. */
+	public int subtreeSize(int v) {
+		return size[v];
+	}
+
+	/** Return true iff node d is in node v's subtree. */
+	public boolean inSubtree(int d, int v) {
+		return post[d] <= post[v] && post[d] > post[v] - size[v];
+	}
+}
@@ -0,0 +1,310 @@
+package graph;
+
+import java.util.Arrays;
+
+/** An instance gives, for every branch of a BlockDecomposition, the most coins a round <br>
+ * trip into the branch can pick up for each number of steps.
+ *
+ * A branch is the subtree of a node c (its entry) whose parent edge is a bridge: the <br>
+ * branch can be entered and left only through that bridge, from c's parent (its <br>
+ * attach node). A round trip from the attach node that walks the edges of a connected <br>
+ * set of nodes of the branch, containing c, takes twice their length plus twice the <br>
+ * length of the bridge. The best such set for each length is found by a tree knapsack <br>
+ * over the depth-first tree: the profile f_v of node v has as element b the most coins <br>
+ * of a connected set of v's subtree that contains v and whose tree edges have length <br>
+ * at most b, and merging the profile of a child c over an edge of length w gives sets <br>
+ * of length b1 + w + b2. Every node's profile is computed once, in postorder, so the <br>
+ * nested branches of a dead-end tree share the work.
+ *
+ * A profile never decreases, so it is stored only up to its first largest element (all <br>
+ * later elements equal it) and only the lengths at which the child's profile increases <br>
+ * need to be tried in a merge. Coins are sparse, so profiles stay short; they are also <br>
+ * capped at half the step budget given to the constructor.
+ *
+ * gain() then answers "what can a round trip into this branch collect in x steps" in <br>
+ * constant time. If a branch is a tree (it has no cycles), the answer is exact; <br>
+ * otherwise it uses only the edges of the depth-first tree and is a lower bound (see <br>
+ * isExact()). tour() gives the walk that collects it.
+ *
+ * For a walk from the root of the decomposition to an exit, a branch that contains <br>
+ * the exit is not a dead end: the walk must cross its bridge anyway. Such branches can <br>
+ * be left out (the dead ends nested in them are kept), which also keeps the profiles <br>
+ * small: rooted at the start of a scram, the branches are short dead ends, whereas a <br>
+ * branch holding the rest of the map would cost time quadratic in its length.
+ *
+ * The coins are those of the graph's snapshot; nodes whose coins have been picked up <br>
+ * since then still count, so planners should build a new instance for a new snapshot. */
+public final class BranchGains {
+
+	/** The decomposition and its graph. */
+	private final BlockDecomposition blocks;
+	private final SewerGraph graph;
+
+	/** The cap on the one-way length of the sets: half the step budget. */
+	private final int cap;
+
+	/** For each branch i, in postorder of the entries: entries[i] is its entry, and <br>
+	 * exact[i] is true iff it has no cycles. branchAt[v] is the branch whose entry is <br>
+	 * node v (-1 if v is not an entry). */
+	private final int[] entries;
+	private final boolean[] exact;
+	private final int[] branchAt;
+
+	/** The profile of the entry of branch i is profiles[offsets[i] .. offsets[i + 1] - 1]: <br>
+	 * its element x is the most coins of a set of the branch of one-way length at most x <br>
+	 * (not counting the bridge). */
+	private final int[] offsets;
+	private final int[] profiles;
+
+	/** Constructor: the gain profiles of all the branches of d, for round trips of at <br>
+	 * most maxSteps steps. <br>
+	 * Throw an IllegalArgumentException if maxSteps < 0. */
+	public BranchGains(BlockDecomposition d, int maxSteps) {
+		this(d, maxSteps, -1);
+	}
+
+	/** Constructor: the gain profiles of the branches of d that do not contain node <br>
+	 * exit (all of them if exit is -1), for round trips of at most maxSteps steps. <br>
+	 * Throw an IllegalArgumentException if maxSteps < 0 or exit is not -1 or a node. */
+	public BranchGains(BlockDecomposition d, int maxSteps, int exit) {
+		if (maxSteps < 0) throw new IllegalArgumentException("maxSteps must be >= 0: " + maxSteps);
+		if (exit < -1 || exit >= d.graph().size()) throw new IllegalArgumentException("no node " + exit);
+		blocks= d;
+		graph= d.graph();
+		cap= maxSteps / 2;
+		int n= graph.size();
+
+		// A node is in a branch iff it is an entry or its parent is in one; parents come
+		// after their children in the postorder, so scan it backward.
+		boolean[] isEntry= new boolean[n];
+		boolean[] inBranch= new boolean[n];
+		branchAt= new int[n];
+		Arrays.fill(branchAt, -1);
+		int count= 0;
+		for (int k= n - 1; k >= 0; k-- ) {
+			int v= d.postorder(k);
+			isEntry[v]= d.hangsOffBridge(v) && (exit < 0 || !d.inSubtree(exit, v));
+			inBranch[v]= isEntry[v] || d.parent(v) >= 0 && inBranch[d.parent(v)];
+			if (isEntry[v]) count++ ;
+		}
+
+		// In postorder, f[v] is v's profile until it is merged into its parent's, and
+		// degrees[v] is the sum of the degrees of the nodes of v's subtree.
+		entries= new int[count];
+		exact= new boolean[count];
+		int[][] f= new int[n][];
+		int[] degrees= new int[n];
+		int[][] kept= new int[count][];
+		int branches= 0;
+		int total= 0;
+		for (int k= 0; k < n; k++ ) {
+			int v= d.postorder(k);
+			if (!inBranch[v]) continue;
+			int[] fv= { graph.coins(v) };
+			degrees[v]= graph.degree(v);
+			for (int e= graph.firstEdge(v); e < graph.endEdge(v); e++ ) {
+				int c= graph.target(e);
+				if (d.parentEdge(c) != e) continue;
+				fv= merge(fv, f[c], graph.weight(e), cap);
+				f[c]= null;
+				degrees[v]+= degrees[c];
+			}
+			f[v]= fv;
+			if (isEntry[v]) {
+				// The edges of the branch are the bridge and (sum of degrees - 1) / 2 others.
+				entries[branches]= v;
+				exact[branches]= (degrees[v] - 1) / 2 == d.subtreeSize(v) - 1;
+				kept[branches]= fv;
+				total+= kept[branches].length;
+				branchAt[v]= branches++ ;
+			}
+		}
+
+		offsets= new int[count + 1];
+		profiles= new int[total];
+		for (int i= 0; i < count; i++ ) {
+			System.arraycopy(kept[i], 0, profiles, offsets[i], kept[i].length);
+			offsets[i + 1]= offsets[i] + kept[i].length;
+		}
+	}
+
+	/** Return element b of profile f, whose elements after the last all equal it. */
+	private static int at(int[] f, int b) {
+		return f[Math.min(b, f.length - 1)];
+	}
+
+	/** Return the profile of the sets of fv's node and, through an edge of length w, <br>
+	 * sets of fc's node, given their profiles fv and fc, capped at length cap. */
+	private static int[] merge(int[] fv, int[] fc, int w, int cap) {
+		int len= Math.min(cap + 1, fv.length + w + fc.length - 1);
+		int[] m= Arrays.copyOf(fv, len);
+		Arrays.fill(m, fv.length, len, fv[fv.length - 1]);
+		for (int b2= 0; b2 < fc.length; b2++ ) {
+			if (b2 > 0 && fc[b2] == fc[b2 - 1]) continue;
+			for (int b1= 0, b= w + b2; b1 < fv.length && b < len; b1++ , b++ ) {
+				m[b]= Math.max(m[b], fv[b1] + fc[b2]);
+			}
+		}
+		// Only the sums at breakpoints were set; fill in the rest and drop the flat tail.
+		int end= 0;
+		for (int b= 1; b < len; b++ ) {
+			m[b]= Math.max(m[b], m[b - 1]);
+			if (m[b] > m[end]) end= b;
+		}
+		return end + 1 == len ? m : Arrays.copyOf(m, end + 1);
+	}
+
+	/** Return the decomposition whose branches these are. */
+	public BlockDecomposition decomposition() {
+		return blocks;
+	}
+
+	/** Return the step budget these profiles cover (rounded down to be even). */
+	public int maxSteps() {
+		return 2 * cap;
+	}
+
+	/** Return the number of branches. */
+	public int branchCount() {
+		return entries.length;
+	}
+
+	/** Return the branch whose entry is node v, or -1 if v is not the entry of one. <br>
+	 * The branches attached at a node u are those of the targets of u's edge slots. */
+	public int branchAt(int v) {
+		return branchAt[v];
+	}
+
+	/** Return the entry of branch i: the node at its end of its bridge. */
+	public int entry(int i) {
+		return entries[i];
+	}
+
+	/** Return the attach node of branch i: the node at the other end of its bridge. */
+	public int attach(int i) {
+		return blocks.parent(entries[i]);
+	}
+
+	/** Return the length of the bridge of branch i. */
+	public int bridgeLength(int i) {
+		return graph.weight(blocks.parentEdge(entries[i]));
+	}
+
+	/** Return true iff branch i has no cycles, so that its gains are exact. If it has <br>
+	 * cycles, its gains use only the edges of the depth-first tree, and a round trip <br>
+	 * using the others may collect more. */
+	public boolean isExact(int i) {
+		return exact[i];
+	}
+
+	/** Return the most coins a round trip from the attach node into branch i of at most <br>
+	 * steps steps collects (0 if steps is too few to cross its bridge and back). <br>
+	 * Steps beyond maxSteps() collect nothing more. */
+	public int gain(int i, int steps) {
+		int x= Math.min(steps / 2, cap) - bridgeLength(i);
+		if (x < 0) return 0;
+		return profiles[offsets[i] + Math.min(x, offsets[i + 1] - offsets[i] - 1)];
+	}
+
+	/** Return a round trip from the attach node into branch i of at most steps steps <br>
+	 * that collects gain(i, steps) coins, as the nodes walked, attach node first and <br>
+	 * last. If steps is too few to cross the bridge and back, return just the attach node. <br>
+	 * This recomputes the profiles of the branch's nodes, keeping them to find the set, <br>
+	 * so it takes as long as building the branch's profile did. */
+	public int[] tour(int i, int steps) {
+		int c= entries[i];
+		int attach= blocks.parent(c);
+		int x= Math.min(steps / 2, cap) - bridgeLength(i);
+		if (x < 0) return new int[] { attach };
+
+		// Node v of the branch is local node post(v) - lo. stages[l][j] is the profile of
+		// local node l after merging its first j children (in edge-slot order).
+		int hi= blocks.postIndex(c);
+		int lo= hi - blocks.subtreeSize(c) + 1;
+		int[][][] stages= new int[hi - lo + 1][][];
+		for (int k= lo; k <= hi; k++ ) {
+			int v= blocks.postorder(k);
+			int children= 0;
+			for (int e= graph.firstEdge(v); e < graph.endEdge(v); e++ ) {
+				if (blocks.parentEdge(graph.target(e)) == e) children++ ;
+			}
+			int[][] s= new int[children + 1][];
+			s[0]= new int[] { graph.coins(v) };
+			int j= 0;
+			for (int e= graph.firstEdge(v); e < graph.endEdge(v); e++ ) {
+				int u= graph.target(e);
+				if (blocks.parentEdge(u) != e) continue;
+				int[][] su= stages[blocks.postIndex(u) - lo];
+				s[j + 1]= merge(s[j], su[su.length - 1], graph.weight(e), cap);
+				j++ ;
+			}
+			stages[k - lo]= s;
+		}
+
+		// Choose the shortest length with the most coins, then walk back down the merges,
+		// choosing the nodes of the set and the length each chosen child's set may have.
+		int[] fc= stages[hi - lo][stages[hi - lo].length - 1];
+		int best= 0;
+		while (fc[best] < at(fc, x)) {
+			best++ ;
+		}
+		boolean[] chosen= new boolean[hi - lo + 1];
+		int[] length= new int[hi - lo + 1];
+		chosen[hi - lo]= true;
+		length[hi - lo]= best;
+		int walk= 1;
+		for (int k= hi; k >= lo; k-- ) {
+			if (!chosen[k - lo]) continue;
+			int v= blocks.postorder(k);
+			int[][] s= stages[k - lo];
+			int b= length[k - lo];
+			int j= s.length - 1;
+			for (int e= graph.endEdge(v) - 1; e >= graph.firstEdge(v); e-- ) {
+				int u= graph.target(e);
+				if (blocks.parentEdge(u) != e) continue;
+				int[] before= s[j - 1];
+				int want= at(s[j], b);
+				j-- ;
+				if (at(before, b) == want) continue;
+				int l= blocks.postIndex(u) - lo;
+				int[] fu= stages[l][stages[l].length - 1];
+				int w= graph.weight(e);
+				int b2= 0;
+				while (at(before, b - w - b2) + at(fu, b2) != want) {
+					b2++ ;
+				}
+				chosen[l]= true;
+				length[l]= b2;
+				b= b - w - b2;
+				walk+= 2;
+			}
+		}
+
+		// Walk the chosen nodes depth first, from the attach node and back to it.
+		int[] path= new int[walk + 2];
+		int p= 0;
+		path[p++ ]= attach;
+		int[] stack= new int[hi - lo + 1];
+		int[] next= new int[hi - lo + 1];
+		int top= 0;
+		stack[top++ ]= c;
+		next[hi - lo]= graph.firstEdge(c);
+		path[p++ ]= c;
+		while (top > 0) {
+			int v= stack[top - 1];
+			int l= blocks.postIndex(v) - lo;
+			if (next[l] < graph.endEdge(v)) {
+				int e= next[l]++ ;
+				int u= graph.target(e);
+				if (blocks.parentEdge(u) != e || !chosen[blocks.postIndex(u) - lo]) continue;
+				stack[top++ ]= u;
+				next[blocks.postIndex(u) - lo]= graph.firstEdge(u);
+				path[p++ ]= u;
+				continue;
+			}
+			top-- ;
+			path[p++ ]= top > 0 ? stack[top - 1] : attach;
+		}
+		return path;
+	}
+}
@@ -0,0 +1,114 @@
+package graph;
+
+import java.util.Arrays;
+
+/** An instance is a circular bucket queue (Dial's algorithm) of nodes 0..n-1 <br>
+ * with int priorities.
+ *
+ * If every edge has a weight in 1..C, then while Dijkstra's algorithm runs all <br>
+ * priorities in the frontier lie in [d, d+C], where d is the priority of the node last <br>
+ * polled. So C+1 buckets, used circularly, are enough: bucket p % (C+1) holds the <br>
+ * nodes with priority p. Adding, decreasing and polling all take constant time <br>
+ * (polling may skip at most C empty buckets).
+ *
+ * Each bucket is a doubly linked list threaded through the int arrays next and prev, <br>
+ * so no objects are allocated after construction. */
+/* package */ final class BucketQueue implements IntFrontier {
+
+	/** head[b] is the first node in bucket b, or -1 if bucket b is empty. */
+	private final int[] head;
+	/** For a node v in the queue: next[v] and prev[v] are its neighbors in its bucket's <br>
+	 * list (-1 if none), and prio[v] is its priority. */
+	private final int[] next;
+	private final int[] prev;
+	private final int[] prio;
+
+	/** The number of nodes in the queue. */
+	private int size;
+	/** A lower bound on all priorities in the queue: the priority last polled. */
+	private int cursor;
+
+	/** Constructor: an empty queue for nodes 0..n-1, where no two priorities in the <br>
+	 * queue ever differ by more than maxWeight. */
+	BucketQueue(int n, int maxWeight) {
+		head= new int[maxWeight + 1];
+		Arrays.fill(head, -1);
+		next= new int[n];
+		prev= new int[n];
+		prio= new int[n];
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public void add(int v, int p) {
+		assert p >= cursor && p - cursor < head.length;
+		prio[v]= p;
+		link(v, p % head.length);
+		size++ ;
+	}
+
+	@Override
+	public void decrease(int v, int p) {
+		assert cursor <= p && p < prio[v];
+		unlink(v, prio[v] % head.length);
+		prio[v]= p;
+		link(v, p % head.length);
+	}
+
+	@Override
+	public int peekPriority() {
+		assert size > 0;
+		return prio[head[advance()]];
+	}
+
+	@Override
+	public int poll() {
+		assert size > 0;
+		int b= advance();
+		int v= head[b];
+		unlink(v, b);
+		size-- ;
+		return v;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(head, -1);
+		size= 0;
+		cursor= 0;
+	}
+
+	/** Move cursor up to the smallest priority in the queue and return its bucket. <br>
+	 * Precondition: the queue is not empty. */
+	private int advance() {
+		int b= cursor % head.length;
+		while (head[b] < 0) {
+			cursor++ ;
+			b= b + 1 == head.length ? 0 : b + 1;
+		}
+		return b;
+	}
+
+	/** Insert v at the front of bucket b. */
+	private void link(int v, int b) {
+		int h= head[b];
+		next[v]= h;
+		prev[v]= -1;
+		if (h >= 0) prev[h]= v;
+		head[b]= v;
+	}
+
+	/** Remove v from bucket b. <br>
+	 * Precondition: v is in bucket b. */
+	private void unlink(int v, int b) {
+		int n= next[v];
+		int p= prev[v];
+		if (p >= 0) next[p]= n;
+		else head[b]= n;
+		if (n >= 0) prev[n]= p;
+	}
+}
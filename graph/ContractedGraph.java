@@ -0,0 +1,393 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.List;
+
+/** An instance is a contracted view of a SewerGraph in which every corridor ---a <br>
+ * maximal chain of nodes with exactly two neighbors--- is a single super-edge.
+ *
+ * The nodes of the view are the junctions: the nodes whose degree is not 2, the nodes <br>
+ * the caller asks to keep (e.g. the nodes with coins, for planning a scram), and one <br>
+ * node of each cycle that has no other junction. They are numbered 0..size()-1 in the <br>
+ * order of their indexes in the graph. Every other node is in the interior of exactly <br>
+ * one chain, which joins two junctions (possibly the same one). A chain carries its <br>
+ * total length, the total coins of its interior nodes, and its interior nodes in order.
+ *
+ * The edges are kept in compressed-sparse-row form like those of SewerGraph: each chain <br>
+ * appears once in each direction, as the edge slots edge and twin(edge). Searches over <br>
+ * the view settle only junctions, which on generated mazes are about half the nodes, <br>
+ * and a path over junctions is turned back into nodes of the graph with unfold(). */
+public final class ContractedGraph {
+
+	/** The graph being contracted. */
+	private final SewerGraph graph;
+
+	/** junction[c] is the node (index in graph) of junction c; junctionOf[v] is the <br>
+	 * junction number of node v, or -1 if v is in the interior of a chain. */
+	private final int[] junction;
+	private final int[] junctionOf;
+
+	/** For each chain i: it runs from junction chainFrom[i] to junction chainTo[i], its <br>
+	 * length is chainLength[i], its interior nodes have chainCoins[i] coins in all, and <br>
+	 * they are interior[chainStart[i] .. chainStart[i+1]-1], in order from chainFrom[i]. */
+	private final int[] chainFrom;
+	private final int[] chainTo;
+	private final int[] chainLength;
+	private final int[] chainCoins;
+	private final int[] chainStart;
+	private final int[] interior;
+
+	/** For each interior node v: chainOf[v] is its chain, along[v] is the length of the <br>
+	 * chain from chainFrom[chainOf[v]] to v, and position[v] is the position of v among <br>
+	 * the chain's interior nodes (all -1 for junctions). */
+	private final int[] chainOf;
+	private final int[] along;
+	private final int[] position;
+
+	/** offsets[c] .. offsets[c+1]-1 are the edge slots leaving junction c. Slot e is <br>
+	 * chain slotChain[e], walked forward (from chainFrom to chainTo) iff slotForward[e], <br>
+	 * and ends at junction targets[e]. */
+	private final int[] offsets;
+	private final int[] targets;
+	private final int[] slotChain;
+	private final boolean[] slotForward;
+
+	/** Return the contraction of g that keeps only the junctions that g's shape forces. */
+	public static ContractedGraph of(SewerGraph g) {
+		return new ContractedGraph(g, new int[0]);
+	}
+
+	/** Return the contraction of g that also keeps the nodes in keep as junctions. */
+	public static ContractedGraph of(SewerGraph g, int[] keep) {
+		return new ContractedGraph(g, keep);
+	}
+
+	/** Return the contraction of g for planning a scram from node start to node exit: <br>
+	 * it keeps start, exit and every node with coins, so that the chains have no coins <br>
+	 * and every node worth visiting is a junction. */
+	public static ContractedGraph forScram(SewerGraph g, int start, int exit) {
+		int[] keep= new int[g.size() + 2];
+		int k= 0;
+		keep[k++ ]= start;
+		keep[k++ ]= exit;
+		for (int v= 0; v < g.size(); v++ ) {
+			if (g.coins(v) > 0) keep[k++ ]= v;
+		}
+		return new ContractedGraph(g, Arrays.copyOf(keep, k));
+	}
+
+	/** Constructor: the contraction of g keeping the nodes in keep as junctions. */
+	private ContractedGraph(SewerGraph g, int[] keep) {
+		graph= g;
+		int n= g.size();
+		boolean[] isJunction= new boolean[n];
+		for (int v= 0; v < n; v++ ) {
+			isJunction[v]= g.degree(v) != 2;
+		}
+		for (int v : keep) {
+			isJunction[v]= true;
+		}
+		// A cycle of degree-2 nodes reaches no junction; make its first node one.
+		boolean[] seen= new boolean[n];
+		for (int v= 0; v < n; v++ ) {
+			if (isJunction[v]) {
+				for (int e= g.firstEdge(v); e < g.endEdge(v); e++ ) {
+					markChain(v, g.target(e), isJunction, seen);
+				}
+			}
+		}
+		for (int v= 0; v < n; v++ ) {
+			if (!isJunction[v] && !seen[v]) {
+				isJunction[v]= true;
+				for (int e= g.firstEdge(v); e < g.endEdge(v); e++ ) {
+					markChain(v, g.target(e), isJunction, seen);
+				}
+			}
+		}
+
+		junctionOf= new int[n];
+		int m= 0;
+		for (int v= 0; v < n; v++ ) {
+			junctionOf[v]= isJunction[v] ? m++ : -1;
+		}
+		junction= new int[m];
+		for (int v= 0; v < n; v++ ) {
+			if (isJunction[v]) junction[junctionOf[v]]= v;
+		}
+
+		// Walk every chain from its junction at each end; keep it the first time only.
+		// A chain without interior nodes is a single edge, kept from its smaller end.
+		chainOf= new int[n];
+		along= new int[n];
+		position= new int[n];
+		Arrays.fill(chainOf, -1);
+		Arrays.fill(along, -1);
+		Arrays.fill(position, -1);
+		int[] from= new int[g.edgeCount()];
+		int[] to= new int[g.edgeCount()];
+		int[] length= new int[g.edgeCount()];
+		int[] coins= new int[g.edgeCount()];
+		int[] start= new int[g.edgeCount() + 1];
+		int[] inner= new int[n];
+		int chains= 0;
+		int at= 0;
+		for (int c= 0; c < m; c++ ) {
+			int u= junction[c];
+			for (int e= g.firstEdge(u); e < g.endEdge(u); e++ ) {
+				int v= g.target(e);
+				if (isJunction[v] ? v < u : chainOf[v] >= 0) continue;
+				start[chains]= at;
+				int prev= u;
+				int len= g.weight(e);
+				int sum= 0;
+				while (!isJunction[v]) {
+					chainOf[v]= chains;
+					along[v]= len;
+					position[v]= at - start[chains];
+					inner[at++ ]= v;
+					sum+= g.coins(v);
+					int next= g.target(g.firstEdge(v)) == prev ? g.firstEdge(v) + 1 : g.firstEdge(v);
+					prev= v;
+					v= g.target(next);
+					len+= g.weight(next);
+				}
+				from[chains]= c;
+				to[chains]= junctionOf[v];
+				length[chains]= len;
+				coins[chains]= sum;
+				chains++ ;
+			}
+		}
+		start[chains]= at;
+		chainFrom= Arrays.copyOf(from, chains);
+		chainTo= Arrays.copyOf(to, chains);
+		chainLength= Arrays.copyOf(length, chains);
+		chainCoins= Arrays.copyOf(coins, chains);
+		chainStart= Arrays.copyOf(start, chains + 1);
+		interior= Arrays.copyOf(inner, at);
+
+		offsets= new int[m + 1];
+		for (int i= 0; i < chains; i++ ) {
+			offsets[chainFrom[i] + 1]++ ;
+			offsets[chainTo[i] + 1]++ ;
+		}
+		for (int c= 0; c < m; c++ ) {
+			offsets[c + 1]+= offsets[c];
+		}
+		targets= new int[2 * chains];
+		slotChain= new int[2 * chains];
+		slotForward= new boolean[2 * chains];
+		int[] next= Arrays.copyOf(offsets, m);
+		for (int i= 0; i < chains; i++ ) {
+			int e= next[chainFrom[i]]++ ;
+			targets[e]= chainTo[i];
+			slotChain[e]= i;
+			slotForward[e]= true;
+			e= next[chainTo[i]]++ ;
+			targets[e]= chainFrom[i];
+			slotChain[e]= i;
+			slotForward[e]= false;
+		}
+	}
+
+	/** Mark as seen the interior nodes of the chain that starts at junction u with the <br>
+	 * edge to node v, in g. */
+	private void markChain(int u, int v, boolean[] isJunction, boolean[] seen) {
+		SewerGraph g= graph;
+		int prev= u;
+		while (!isJunction[v] && !seen[v]) {
+			seen[v]= true;
+			int next= g.target(g.firstEdge(v)) == prev ? g.target(g.firstEdge(v) + 1) :
+				g.target(g.firstEdge(v));
+			prev= v;
+			v= next;
+		}
+	}
+
+	/** Return the graph this view contracts. */
+	public SewerGraph graph() {
+		return graph;
+	}
+
+	/** Return the number of junctions. */
+	public int size() {
+		return junction.length;
+	}
+
+	/** Return the number of chains (super-edges). */
+	public int chainCount() {
+		return chainFrom.length;
+	}
+
+	/** Return the node (index in graph()) of junction c. */
+	public int node(int c) {
+		return junction[c];
+	}
+
+	/** Return the junction number of node v, or -1 if v is in the interior of a chain. */
+	public int junctionOf(int v) {
+		return junctionOf[v];
+	}
+
+	/** Return the first edge slot leaving junction c. */
+	public int firstEdge(int c) {
+		return offsets[c];
+	}
+
+	/** Return one more than the last edge slot leaving junction c. */
+	public int endEdge(int c) {
+		return offsets[c + 1];
+	}
+
+	/** Return the junction at the end of edge slot e. */
+	public int target(int e) {
+		return targets[e];
+	}
+
+	/** Return the junction at the start of edge slot e. */
+	public int source(int e) {
+		int i= slotChain[e];
+		return slotForward[e] ? chainFrom[i] : chainTo[i];
+	}
+
+	/** Return the length of edge slot e: the total length of its chain. */
+	public int length(int e) {
+		return chainLength[slotChain[e]];
+	}
+
+	/** Return the total coins of the interior nodes of edge slot e's chain. */
+	public int coins(int e) {
+		return chainCoins[slotChain[e]];
+	}
+
+	/** Return the edge slot for the same chain as e, walked the other way. */
+	public int twin(int e) {
+		int i= slotChain[e];
+		int s= slotForward[e] ? chainTo[i] : chainFrom[i];
+		for (int f= offsets[s]; f < offsets[s + 1]; f++ ) {
+			if (slotChain[f] == i && slotForward[f] != slotForward[e]) return f;
+		}
+		throw new IllegalStateException("chain " + i + " has no twin slot");
+	}
+
+	/** Return the interior nodes of edge slot e, in the order it walks them. */
+	public int[] interior(int e) {
+		int[] nodes= new int[interiorCount(e)];
+		appendInterior(e, nodes, 0);
+		return nodes;
+	}
+
+	/** Return the number of interior nodes of edge slot e. */
+	public int interiorCount(int e) {
+		int i= slotChain[e];
+		return chainStart[i + 1] - chainStart[i];
+	}
+
+	/** Store the interior nodes of edge slot e, in the order it walks them, in <br>
+	 * buf[at..], and return the index after the last one. */
+	/* package */ int appendInterior(int e, int[] buf, int at) {
+		int i= slotChain[e];
+		if (slotForward[e]) {
+			for (int p= chainStart[i]; p < chainStart[i + 1]; p++ ) {
+				buf[at++ ]= interior[p];
+			}
+		} else {
+			for (int p= chainStart[i + 1] - 1; p >= chainStart[i]; p-- ) {
+				buf[at++ ]= interior[p];
+			}
+		}
+		return at;
+	}
+
+	/** Return the chain whose interior holds node v, or -1 if v is a junction. */
+	/* package */ int chainOf(int v) {
+		return chainOf[v];
+	}
+
+	/** Return the length of node v's chain from its first junction to v. <br>
+	 * Precondition: v is an interior node. */
+	/* package */ int along(int v) {
+		return along[v];
+	}
+
+	/** Return the first junction of chain i. */
+	/* package */ int chainFrom(int i) {
+		return chainFrom[i];
+	}
+
+	/** Return the last junction of chain i. */
+	/* package */ int chainTo(int i) {
+		return chainTo[i];
+	}
+
+	/** Return the length of chain i. */
+	/* package */ int chainLength(int i) {
+		return chainLength[i];
+	}
+
+	/** Return the position of interior node v in its chain's interior nodes <br>
+	 * (0 for the one next to the chain's first junction). */
+	/* package */ int position(int v) {
+		return position[v];
+	}
+
+	/** Return the number of interior nodes of chain i. */
+	/* package */ int chainSize(int i) {
+		return chainStart[i + 1] - chainStart[i];
+	}
+
+	/** Return the interior node at position p of chain i. */
+	/* package */ int interiorAt(int i, int p) {
+		return interior[chainStart[i] + p];
+	}
+
+	/** Return the nodes (indexes in graph()) of the walk that starts at junction start <br>
+	 * and takes edge slots edges in turn. <br>
+	 * Throw an IllegalArgumentException if an edge does not leave the junction the <br>
+	 * walk has reached. */
+	public int[] unfold(int start, int[] edges) {
+		int count= 1;
+		for (int e : edges) {
+			count+= interiorCount(e) + 1;
+		}
+		int[] walk= new int[count];
+		int at= 0;
+		walk[at++ ]= junction[start];
+		int c= start;
+		for (int e : edges) {
+			if (source(e) != c) {
+				throw new IllegalArgumentException("unfold: edge slot " + e + " does not leave junction " + c);
+			}
+			at= appendInterior(e, walk, at);
+			c= targets[e];
+			walk[at++ ]= junction[c];
+		}
+		return walk;
+	}
+
+	/** Return the nodes (indexes in graph()) of the walk through junctions path, in <br>
+	 * order, taking the shortest chain between consecutive junctions. <br>
+	 * Throw an IllegalArgumentException if two consecutive junctions are not joined. */
+	public int[] unfold(int[] path) {
+		if (path.length == 0) return new int[0];
+		int[] edges= new int[path.length - 1];
+		for (int i= 0; i + 1 < path.length; i++ ) {
+			int best= -1;
+			for (int e= offsets[path[i]]; e < offsets[path[i] + 1]; e++ ) {
+				if (targets[e] == path[i + 1] && (best < 0 || length(e) < length(best))) best= e;
+			}
+			if (best < 0) {
+				throw new IllegalArgumentException("unfold: junctions " + path[i] + " and " +
+					path[i + 1] + " are not joined");
+			}
+			edges[i]= best;
+		}
+		return unfold(path[0], edges);
+	}
+
+	/** Return the Nodes of the walk through junctions path, as unfold(path) gives it, <br>
+	 * e.g. to move along it with ScramState.moveTo. */
+	public List<Node> toNodes(int[] path) {
+		return graph.toNodes(unfold(path));
+	}
+}
@@ -0,0 +1,266 @@
+package graph;
+
+/** An instance runs Dijkstra's algorithm over a ContractedGraph, answering point-to-point <br>
+ * queries between any two nodes of the underlying SewerGraph.
+ *
+ * Only junctions are settled; a query whose source or target is inside a chain enters <br>
+ * or leaves the chain at either end, with the part of the chain's length up to that end, <br>
+ * and a source and target in the same chain may also be joined directly along it. <br>
+ * Paths are unfolded into nodes of the SewerGraph, so this is a drop-in PathSearch. <br>
+ * run(c) also computes a whole shortest-path tree over the junctions, e.g. for <br>
+ * distance tables. Like DijkstraSearch, an instance reuses its arrays from query to <br>
+ * query and is not thread-safe. */
+public final class ContractedSearch implements PathSearch {
+
+	/** The contracted graph being searched. */
+	private final ContractedGraph view;
+
+	/** The frontier set, of junctions and one more node, goal (= view.size()), which <br>
+	 * stands for the target of a point-to-point query. */
+	private final IntMinHeap frontier;
+	private final int goal;
+
+	/** For a junction c (or goal) reached in the current round: dist[c] is the length of <br>
+	 * the shortest known path from the source to c, and edge[c] is the edge slot that <br>
+	 * path ends with (-1 if it starts at c, i.e. c is the source or the end of the <br>
+	 * source's chain where the path enters the graph of junctions). For goal, edge[goal] <br>
+	 * is the junction the path leaves the junctions from (-1 if it runs directly along <br>
+	 * the chain of the source and the target). reached[c] = round iff c was reached in <br>
+	 * the current round. */
+	private final int[] dist;
+	private final int[] edge;
+	private final int[] reached;
+	private int round;
+
+	/** Scratch space for the junctions in the frontier whose distances drop when a <br>
+	 * junction is settled, and their new distances; as long as the most edges of a <br>
+	 * junction. */
+	private final int[] dropped;
+	private final int[] droppedTo;
+
+	/** The number of nodes settled by the last query. */
+	private int settledCount;
+
+	/** Constructor: a search over the contracted graph cg. */
+	public ContractedSearch(ContractedGraph cg) {
+		view= cg;
+		goal= cg.size();
+		frontier= new IntMinHeap(goal + 1);
+		dist= new int[goal + 1];
+		edge= new int[goal + 1];
+		reached= new int[goal + 1];
+		int degree= 0;
+		for (int c= 0; c < goal; c++ ) {
+			degree= Math.max(degree, cg.endEdge(c) - cg.firstEdge(c));
+		}
+		dropped= new int[degree];
+		droppedTo= new int[degree];
+	}
+
+	@Override
+	public SewerGraph graph() {
+		return view.graph();
+	}
+
+	/** Return the contracted graph this search runs over. */
+	public ContractedGraph view() {
+		return view;
+	}
+
+	/** Run Dijkstra's algorithm from junction c over all junctions. Afterward <br>
+	 * distanceTo() and edgeTo() give the shortest-path tree rooted at c. */
+	public void run(int c) {
+		start();
+		reach(c, 0, -1);
+		settleAll(-1, 0);
+	}
+
+	/** Return the length of a shortest path from the source of the last run(c) to <br>
+	 * junction c, or Integer.MAX_VALUE if there is none. */
+	public int distanceTo(int c) {
+		return reached[c] == round ? dist[c] : Integer.MAX_VALUE;
+	}
+
+	/** Return the edge slot that ends a shortest path from the source of the last <br>
+	 * run(c) to junction c (-1 if c is the source or was not reached). */
+	public int edgeTo(int c) {
+		return reached[c] == round ? edge[c] : -1;
+	}
+
+	/** Start a new query. */
+	private void start() {
+		round++ ;
+		frontier.clear();
+		settledCount= 0;
+	}
+
+	/** Record that junction c (or goal) is reached by a path of length d ending with <br>
+	 * slot e, if that is shorter than any known path. */
+	private void reach(int c, int d, int e) {
+		if (reached[c] == round && d >= dist[c]) return;
+		reached[c]= round;
+		dist[c]= d;
+		edge[c]= e;
+		frontier.addOrDecrease(c, d);
+	}
+
+	/** Settle junctions in order of distance until the frontier is empty or goal is <br>
+	 * settled, reaching goal from the ends of chain dstChain (if it is not -1), whose <br>
+	 * target is dstAlong from its first junction. */
+	private void settleAll(int dstChain, int dstAlong) {
+		while (!frontier.isEmpty()) {
+			int c= frontier.poll();
+			if (c == goal) return;
+			settledCount++ ;
+			relax(c);
+			if (dstChain >= 0) {
+				if (c == view.chainFrom(dstChain)) reachGoal(dist[c] + dstAlong, c);
+				if (c == view.chainTo(dstChain)) {
+					reachGoal(dist[c] + view.chainLength(dstChain) - dstAlong, c);
+				}
+			}
+		}
+	}
+
+	/** Reach the neighbors of junction c, just settled, along its edges. Those <br>
+	 * already in the frontier whose distances drop are decreased all at once. */
+	private void relax(int c) {
+		int n= 0;
+		for (int e= view.firstEdge(c); e < view.endEdge(c); e++ ) {
+			int t= view.target(e);
+			int d= dist[c] + view.length(e);
+			if (reached[t] == round && d >= dist[t]) continue;
+			boolean queued= reached[t] == round && frontier.contains(t);
+			reached[t]= round;
+			dist[t]= d;
+			edge[t]= e;
+			if (!queued) {
+				frontier.add(t, d);
+			} else {
+				dropped[n]= t;
+				droppedTo[n]= d;
+				n++ ;
+			}
+		}
+		frontier.decreaseKeys(dropped, droppedTo, n);
+	}
+
+	/** Record that goal is reached by a path of length d leaving the junctions at c. */
+	private void reachGoal(int d, int c) {
+		if (reached[goal] == round && d >= dist[goal]) return;
+		reached[goal]= round;
+		dist[goal]= d;
+		edge[goal]= c;
+		frontier.addOrDecrease(goal, d);
+	}
+
+	/** Run the query from node src to node dst, returning the length of a shortest <br>
+	 * path, or -1 if there is none. <br>
+	 * Precondition: src != dst. */
+	private int query(int src, int dst) {
+		start();
+		int cs= view.junctionOf(src);
+		int ct= view.junctionOf(dst);
+		if (cs >= 0) {
+			reach(cs, 0, -1);
+		} else {
+			int x= view.chainOf(src);
+			reach(view.chainFrom(x), view.along(src), -1);
+			reach(view.chainTo(x), view.chainLength(x) - view.along(src), -1);
+			if (x == view.chainOf(dst)) reachGoal(Math.abs(view.along(dst) - view.along(src)), -1);
+		}
+		if (ct >= 0) {
+			// The target is a junction: settling it settles goal.
+			while (!frontier.isEmpty()) {
+				int c= frontier.poll();
+				settledCount++ ;
+				if (c == ct) return dist[c];
+				if (c == goal) return dist[goal];
+				for (int e= view.firstEdge(c); e < view.endEdge(c); e++ ) {
+					reach(view.target(e), dist[c] + view.length(e), e);
+				}
+			}
+			return -1;
+		}
+		int y= view.chainOf(dst);
+		settleAll(y, view.along(dst));
+		return reached[goal] == round ? dist[goal] : -1;
+	}
+
+	@Override
+	public int distance(int src, int dst) {
+		if (src == dst) {
+			settledCount= 0;
+			return 0;
+		}
+		return query(src, dst);
+	}
+
+	@Override
+	public int[] path(int src, int dst) {
+		if (src == dst) {
+			settledCount= 0;
+			return new int[] { src };
+		}
+		if (query(src, dst) < 0) return new int[0];
+
+		int ct= view.junctionOf(dst);
+		if (ct < 0 && edge[goal] < 0) return alongChain(src, dst);
+
+		// The edge slots from the first junction to the last, last first.
+		int last= ct >= 0 ? ct : edge[goal];
+		int k= 0;
+		for (int c= last; edge[c] >= 0; c= view.source(edge[c])) {
+			k++ ;
+		}
+		int[] slots= new int[k];
+		int first= last;
+		for (int i= k - 1; i >= 0; i-- ) {
+			slots[i]= edge[first];
+			first= view.source(edge[first]);
+		}
+
+		int[] head= view.junctionOf(src) >= 0 ? new int[0] : toEnd(src, first);
+		int[] middle= view.unfold(first, slots);
+		int[] tail= ct >= 0 ? new int[0] : toEnd(dst, last);
+		int[] path= new int[head.length + middle.length + tail.length];
+		System.arraycopy(head, 0, path, 0, head.length);
+		System.arraycopy(middle, 0, path, head.length, middle.length);
+		for (int i= 0; i < tail.length; i++ ) {
+			path[path.length - 1 - i]= tail[i];
+		}
+		return path;
+	}
+
+	/** Return the nodes of the chain of interior node v from v to (but excluding) its <br>
+	 * end at junction c, v first. If both ends are c, the shorter way is taken, <br>
+	 * as the search does. */
+	private int[] toEnd(int v, int c) {
+		int x= view.chainOf(v);
+		int p= view.position(v);
+		boolean back= view.chainFrom(x) == c &&
+			(view.chainTo(x) != c || view.along(v) <= view.chainLength(x) - view.along(v));
+		int[] nodes= new int[back ? p + 1 : view.chainSize(x) - p];
+		for (int i= 0; i < nodes.length; i++ ) {
+			nodes[i]= view.interiorAt(x, back ? p - i : p + i);
+		}
+		return nodes;
+	}
+
+	/** Return the nodes of the chain of src and dst from src to dst, directly along it. */
+	private int[] alongChain(int src, int dst) {
+		int x= view.chainOf(src);
+		int a= view.position(src);
+		int b= view.position(dst);
+		int[] nodes= new int[Math.abs(a - b) + 1];
+		for (int i= 0; i < nodes.length; i++ ) {
+			nodes[i]= view.interiorAt(x, a < b ? a + i : a - i);
+		}
+		return nodes;
+	}
+
+	@Override
+	public int settledCount() {
+		return settledCount;
+	}
+}
@@ -0,0 +1,162 @@
+package graph;
+
+/** An instance runs Dijkstra's shortest-path algorithm over a SewerGraph.
+ *
+ * The frontier set is either an indexed heap or, by default, a bucket queue (Dial's <br>
+ * algorithm), which exploits the fact that edge weights are small ints: see Engine.
+ *
+ * An instance is meant to be reused for many queries on the same graph: the per-node <br>
+ * arrays are allocated once and are invalidated between queries by bumping a round <br>
+ * number rather than by clearing them. An instance is not thread-safe; use one <br>
+ * instance per thread. */
+public final class DijkstraSearch implements PathSearch {
+
+	/** The kinds of frontier set a search can use. */
+	public enum Engine {
+		/** An indexed 4-ary min-heap (IntMinHeap): O(log n) per operation, <br>
+		 * for any edge weights. */
+		HEAP,
+		/** A circular bucket queue: O(1) per operation, for edge weights of at most <br>
+		 * Sewers.MAX_EDGE_WEIGHT (or whatever the largest weight of the graph is). */
+		BUCKET;
+	}
+
+	/** The graph being searched. */
+	private final SewerGraph graph;
+
+	/** The frontier set. */
+	private final IntFrontier frontier;
+
+	/** For a node v reached in the current round: dist[v] is the length of the shortest <br>
+	 * known path from the source to v, and pred[v] is v's predecessor on that path <br>
+	 * (-1 for the source). */
+	private final int[] dist;
+	private final int[] pred;
+
+	/** reached[v] = round iff v was reached in the current round; <br>
+	 * settled[v] = round iff v was settled in the current round. */
+	private final int[] reached;
+	private final int[] settled;
+	private int round;
+
+	/** The source of the current round, and the number of nodes it settled. */
+	private int source= -1;
+	private int settledCount;
+
+	/** Constructor: a search over graph g using a bucket queue. */
+	public DijkstraSearch(SewerGraph g) {
+		this(g, Engine.BUCKET);
+	}
+
+	/** Constructor: a search over graph g whose frontier set is given by engine. */
+	public DijkstraSearch(SewerGraph g, Engine engine) {
+		graph= g;
+		int n= g.size();
+		frontier= engine == Engine.HEAP ? new IntMinHeap(n) : new BucketQueue(n, g.maxWeight());
+		dist= new int[n];
+		pred= new int[n];
+		reached= new int[n];
+		settled= new int[n];
+	}
+
+	@Override
+	public SewerGraph graph() {
+		return graph;
+	}
+
+	/** Run Dijkstra's algorithm from node src, stopping as soon as node dst is settled. <br>
+	 * If dst is -1, settle every node reachable from src. <br>
+	 * Return the shortest distance from src to dst, or -1 if dst is unreachable <br>
+	 * (0 if dst is -1). */
+	public int run(int src, int dst) {
+		startRound(src);
+		while (!frontier.isEmpty()) {
+			int f= frontier.poll();
+			settled[f]= round;
+			settledCount++ ;
+			if (f == dst) return dist[f];
+
+			int fDist= dist[f];
+			for (int e= graph.firstEdge(f); e < graph.endEdge(f); e++ ) {
+				int w= graph.target(e);
+				int wDist= fDist + graph.weight(e);
+				if (reached[w] != round) {
+					reached[w]= round;
+					dist[w]= wDist;
+					pred[w]= f;
+					frontier.add(w, wDist);
+				} else if (wDist < dist[w] && settled[w] != round) {
+					dist[w]= wDist;
+					pred[w]= f;
+					frontier.decrease(w, wDist);
+				}
+			}
+		}
+		return dst < 0 ? 0 : -1;
+	}
+
+	@Override
+	public int distance(int src, int dst) {
+		return run(src, dst);
+	}
+
+	@Override
+	public int[] path(int src, int dst) {
+		return run(src, dst) < 0 ? new int[0] : pathTo(dst);
+	}
+
+	/** Start a new round with source src: forget the previous round and put src <br>
+	 * in the frontier. */
+	private void startRound(int src) {
+		frontier.clear();
+		round++ ;
+		source= src;
+		settledCount= 0;
+		reached[src]= round;
+		dist[src]= 0;
+		pred[src]= -1;
+		frontier.add(src, 0);
+	}
+
+	/** Return the source of the last query. */
+	public int source() {
+		return source;
+	}
+
+	/** Return true iff node v was settled by the last query, so that distance(v) is exact. */
+	public boolean isSettled(int v) {
+		return settled[v] == round;
+	}
+
+	/** Return the shortest known distance from the last source to node v, <br>
+	 * or Integer.MAX_VALUE if v was not reached. */
+	public int distance(int v) {
+		return reached[v] == round ? dist[v] : Integer.MAX_VALUE;
+	}
+
+	/** Return v's predecessor on the shortest known path from the last source, <br>
+	 * or -1 if v is the source or was not reached. */
+	public int predecessor(int v) {
+		return reached[v] == round ? pred[v] : -1;
+	}
+
+	@Override
+	public int settledCount() {
+		return settledCount;
+	}
+
+	/** Return the indexes of the nodes on the shortest known path from the last source <br>
+	 * to node v, source first ---or an empty array if v was not reached. */
+	public int[] pathTo(int v) {
+		if (reached[v] != round) return new int[0];
+		int len= 1;
+		for (int p= v; pred[p] >= 0; p= pred[p]) {
+			len++ ;
+		}
+		int[] path= new int[len];
+		for (int p= v; p >= 0; p= pred[p]) {
+			path[--len]= p;
+		}
+		return path;
+	}
+}
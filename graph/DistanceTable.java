@@ -0,0 +1,161 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/** An instance is a precomputed table of shortest-path distances and next hops <br>
+ * between a set of source nodes of a SewerGraph and every node of the graph.
+ *
+ * With every node as a source it is an all-pairs table; for route planning it is <br>
+ * usually enough to use the nodes of interest (e.g. the nodes with coins, the current <br>
+ * node and the exit). Any lookup with at least one source node as an endpoint takes <br>
+ * constant time, and a path takes time proportional to its length, since the graph is <br>
+ * undirected.
+ *
+ * The table is kept in flat int arrays with one row of size() entries per source. <br>
+ * The rows are independent, so they are computed in parallel, one DijkstraSearch <br>
+ * per worker thread. */
+public final class DistanceTable {
+
+	/** The value of distance(u, v) when v cannot be reached from u. */
+	public static final int UNREACHABLE= Integer.MAX_VALUE;
+
+	/** The most entries (sources times nodes) a table can have: the largest array <br>
+	 * size the VM can allocate. */
+	public static final int MAX_ENTRIES= Integer.MAX_VALUE - 8;
+
+	/** The graph whose distances are tabulated, and its size. */
+	private final SewerGraph graph;
+	private final int n;
+
+	/** sources[i] is the node of row i; rowOf[v] is the row of node v, or -1 if v is <br>
+	 * not a source. */
+	private final int[] sources;
+	private final int[] rowOf;
+
+	/** For row i and node v: dist[i*n + v] is the length of a shortest path between <br>
+	 * sources[i] and v (UNREACHABLE if there is none), and hop[i*n + v] is the node <br>
+	 * after v on such a path from v to sources[i] (-1 if v is sources[i] or unreachable). */
+	private final int[] dist;
+	private final int[] hop;
+
+	/** Return a table of the distances between every pair of nodes of g. <br>
+	 * Throw an IllegalArgumentException if g.size() squared exceeds MAX_ENTRIES. */
+	public static DistanceTable allPairs(SewerGraph g) {
+		return new DistanceTable(g, IntStream.range(0, g.size()).toArray());
+	}
+
+	/** Return a table of the distances from each node in sources to every node of g. <br>
+	 * Duplicates in sources are ignored. <br>
+	 * Throw an IllegalArgumentException if the number of distinct sources times <br>
+	 * g.size() exceeds MAX_ENTRIES. */
+	public static DistanceTable from(SewerGraph g, int[] sources) {
+		return new DistanceTable(g, IntStream.of(sources).distinct().toArray());
+	}
+
+	/** Constructor: a table for graph g with rows for the distinct nodes srcs. <br>
+	 * Throw an IllegalArgumentException if the table would exceed MAX_ENTRIES. */
+	private DistanceTable(SewerGraph g, int[] srcs) {
+		long entries= (long) srcs.length * g.size();
+		if (entries > MAX_ENTRIES) {
+			throw new IllegalArgumentException("a table of " + srcs.length + " sources by " + g.size() +
+				" nodes has " + entries + " entries, more than the " + MAX_ENTRIES + " an array can hold");
+		}
+		graph= g;
+		n= g.size();
+		sources= srcs;
+		rowOf= new int[n];
+		Arrays.fill(rowOf, -1);
+		for (int i= 0; i < sources.length; i++ ) {
+			rowOf[sources[i]]= i;
+		}
+		dist= new int[(int) entries];
+		hop= new int[(int) entries];
+
+		// Split the rows into one contiguous chunk per worker, each with its own search.
+		int chunks= Math.min(sources.length, ForkJoinPool.getCommonPoolParallelism() + 1);
+		IntStream.range(0, chunks).parallel().forEach((c) -> {
+			DijkstraSearch search= new DijkstraSearch(graph);
+			int lo= (int) ((long) sources.length * c / chunks);
+			int hi= (int) ((long) sources.length * (c + 1) / chunks);
+			for (int i= lo; i < hi; i++ ) {
+				fillRow(search, i);
+			}
+		});
+	}
+
+	/** Compute row i of the table, using search. */
+	private void fillRow(DijkstraSearch search, int i) {
+		search.run(sources[i], -1);
+		int base= i * n;
+		for (int v= 0; v < n; v++ ) {
+			dist[base + v]= search.distance(v);
+			hop[base + v]= search.predecessor(v);
+		}
+	}
+
+	/** Return the graph of this table. */
+	public SewerGraph graph() {
+		return graph;
+	}
+
+	/** Return the number of source nodes (rows) of this table. */
+	public int sourceCount() {
+		return sources.length;
+	}
+
+	/** Return true iff node v is a source node of this table. */
+	public boolean isSource(int v) {
+		return rowOf[v] >= 0;
+	}
+
+	/** Return the length of a shortest path between nodes u and v, <br>
+	 * or UNREACHABLE if there is none. <br>
+	 * Throw an IllegalArgumentException if neither u nor v is a source node. */
+	public int distance(int u, int v) {
+		if (rowOf[v] >= 0) return dist[rowOf[v] * n + u];
+		if (rowOf[u] >= 0) return dist[rowOf[u] * n + v];
+		throw new IllegalArgumentException("distance: one of the nodes must be a source");
+	}
+
+	/** Return the node after u on a shortest path from u to source node s <br>
+	 * (-1 if u is s or cannot reach s). <br>
+	 * Throw an IllegalArgumentException if s is not a source node. */
+	public int nextHop(int u, int s) {
+		if (rowOf[s] < 0) throw new IllegalArgumentException("nextHop: s must be a source");
+		return hop[rowOf[s] * n + u];
+	}
+
+	/** Return the nodes of a shortest path from u to v, u first and v last <br>
+	 * ---or an empty array if there is no path. <br>
+	 * Throw an IllegalArgumentException if neither u nor v is a source node. */
+	public int[] path(int u, int v) {
+		boolean toSource= rowOf[v] >= 0;
+		int s= toSource ? v : u;
+		int t= toSource ? u : v;
+		if (rowOf[s] < 0) throw new IllegalArgumentException("path: one of the nodes must be a source");
+		int base= rowOf[s] * n;
+		if (dist[base + t] == UNREACHABLE) return new int[0];
+
+		int len= 1;
+		for (int p= t; p != s; p= hop[base + p]) {
+			len++ ;
+		}
+		int[] path= new int[len];
+		int p= t;
+		for (int k= 0; k < len; k++ ) {
+			path[k]= p;
+			p= hop[base + p];
+		}
+		// path now runs from t to s.
+		if (!toSource) {
+			for (int a= 0, b= len - 1; a < b; a++ , b-- ) {
+				int tmp= path[a];
+				path[a]= path[b];
+				path[b]= tmp;
+			}
+		}
+		return path;
+	}
+}
@@ -1,7 +1,6 @@
 package graph;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
@@ -11,13 +10,16 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.FutureTask;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import diver.McDiver;
+import graph.Sewers.Direction;
 import gui.GUI;
 
 public class GameState implements SeekState, ScramState {
@@ -29,6 +31,34 @@ public class GameState implements SeekState, ScramState {
 	@SuppressWarnings("serial")
 	private static class OutOfTimeException extends RuntimeException {}
 
+	/** Thrown by the methods of SeekState and ScramState once the phase has run <br>
+	 * past its deadline. */
+	@SuppressWarnings("serial")
+	private static class PhaseTimeoutException extends RuntimeException {}
+
+	/** Runs the timed phases of all games. Its threads are reused from game to game <br>
+	 * (or are virtual threads, when the JDK has them), and never keep the JVM alive. <br>
+	 * A phase that times out without calling a method of its state keeps its thread <br>
+	 * until it returns; see MAX_RUNAWAY_PHASES. */
+	private static final ExecutorService PHASE_EXECUTOR= createPhaseExecutor();
+
+	/** The most timed-out phases that may still be running when a timed phase starts. <br>
+	 * Each holds a thread of PHASE_EXECUTOR, so this bounds the threads that runaway <br>
+	 * phases can leak: beyond it, runWithDeadline() does not start another phase, but <br>
+	 * reports it as timed out, so the game (and any batch it is part of) goes on. <br>
+	 * The count is checked as each phase starts, so games timing out at the same time <br>
+	 * can overshoot it by at most the number of games running at once. */
+	public static final int MAX_RUNAWAY_PHASES= 64;
+
+	/** The number of phases that timed out and have not yet returned. */
+	private static final AtomicInteger RUNAWAY_PHASES= new AtomicInteger();
+
+	/** The states of a timed phase, for runWithDeadline(). */
+	private static final int QUEUED= 0;
+	private static final int RUNNING= 1;
+	private static final int DONE= 2;
+	private static final int RUNAWAY= 3;
+
 	static boolean shouldPrint= true;
 
 	public static final int MIN_ROWS= 8;
@@ -49,6 +79,13 @@ public class GameState implements SeekState, ScramState {
 	private final Sewers seekSewer;
 	private final Sewers scramSewer;
 
+	/** The unmodifiable collections returned by neighbors(), by the grid cell <br>
+	 * (row * columns + column) of the node; created when first needed. */
+	private List<Collection<NodeStatus>> neighborViews;
+
+	/** The grid directions, in the order of Direction.values(). */
+	private static final Direction[] DIRECTIONS= Direction.values();
+
 	private final SewerDiver sewerDiver;
 	private final Optional<GUI> gui;
 
@@ -67,6 +104,9 @@ public class GameState implements SeekState, ScramState {
 	private boolean seekTimedOut= false;
 	private boolean scramTimedOut= false;
 
+	/** True iff this game prints nothing to the console (see setQuiet()). */
+	private boolean quiet= false;
+
 	private int minSeekDistance;
 	private int minScramDistance;
 
@@ -75,6 +115,24 @@ public class GameState implements SeekState, ScramState {
 
 	private int minSeekSteps;
 
+	/** While a timed phase runs, deadline is the System.nanoTime() at which it times out <br>
+	 * and hasDeadline is true. expired becomes true once the deadline has passed; <br>
+	 * from then on every call by the sewer diver on this state throws a <br>
+	 * PhaseTimeoutException, so the diver's thread unwinds by itself. */
+	private volatile long deadline;
+	private volatile boolean hasDeadline;
+	private volatile boolean expired;
+
+	/** True iff the last timed phase timed out without ever starting. */
+	private boolean phaseSkipped;
+
+	/** The steps available when the scram phase started. */
+	private int scramStepsBudget;
+
+	/** Wall-clock time, in nanoseconds, spent in the seek and scram phases by run(). */
+	private long seekNanos;
+	private long scramNanos;
+
 	/** = "scram succeeded" */
 	public boolean scramSucceeded() {
 		return scramSucceeded;
@@ -82,12 +140,13 @@ public class GameState implements SeekState, ScramState {
 
 	/** Constructor: a new GameState object for sewerDiver sd. <br>
 	 * This constructor takes a path to files storing serialized sewers <br>
+	 * (either as text, from serialize(), or binary, from writeBinary()) <br>
 	 * and simply loads these sewers. */
 	GameState(Path seekSewerPath, Path scramSewerPath, SewerDiver sd)
 		throws IOException {
-		seekSewer= Sewers.deserialize(Files.readAllLines(seekSewerPath));
+		seekSewer= Sewers.load(seekSewerPath);
 		minSeekSteps= seekSewer.minPathLengthToRing(seekSewer.entrance());
-		scramSewer= Sewers.deserialize(Files.readAllLines(scramSewerPath));
+		scramSewer= Sewers.load(scramSewerPath);
 
 		sewerDiver= sd;
 
@@ -103,6 +162,27 @@ public class GameState implements SeekState, ScramState {
 			position.getTile().column(), 0, this));
 	}
 
+	/** Constructor: a new game without a GUI for sewerDiver sd, played on the <br>
+	 * given sewers, e.g. ones loaded from stored maps. The ring of seek must be at <br>
+	 * an open tile of scram. */
+	/* package */ GameState(Sewers seek, Sewers scram, SewerDiver sd) {
+		seekSewer= seek;
+		minSeekSteps= seekSewer.minPathLengthToRing(seekSewer.entrance());
+		scramSewer= scram;
+
+		sewerDiver= sd;
+
+		position= seekSewer.entrance();
+		stepsTaken= 0;
+		stepsToGo= Integer.MAX_VALUE;
+		coinsCollected= 0;
+
+		seed= -1;
+
+		stage= Stage.SEEK;
+		gui= Optional.empty();
+	}
+
 	/** Constructor: a new random game instance with or without a GUI. */
 	private GameState(boolean useGui, SewerDiver sd) {
 		this(new Random().nextLong(), useGui, sd);
@@ -157,12 +237,16 @@ public class GameState implements SeekState, ScramState {
 	 * Will run scram() only if seek() succeeds. <br>
 	 * Does not use a timeout and will wait as long as necessary. */
 	void run() {
+		long start= System.nanoTime();
 		seek();
+		seekNanos= System.nanoTime() - start;
 		if (!seekSucceeded) {
 			seekStepsLeft= seekSewer.minPathLengthToRing(position);
 			scramStepsLeft= scramSewer.minPathLengthToRing(scramSewer.entrance());
 		} else {
+			start= System.nanoTime();
 			scram();
+			scramNanos= System.nanoTime() - start;
 			if (!scramSucceeded) {
 				scramStepsLeft= scramSewer.minPathLengthToRing(position);
 			}
@@ -185,27 +269,107 @@ public class GameState implements SeekState, ScramState {
 		}
 	}
 
-	@SuppressWarnings("deprecation")
 	/** Wrap a call seek() with the timeout functionality. */
 	private void seekWithTimeLimit() {
-		FutureTask<Void> ft= new FutureTask<>(new Callable<Void>() {
-			@Override
-			public Void call() {
-				seek();
-				return null;
+		seekTimedOut= runWithDeadline(this::seek, SEEK_TIMEOUT);
+	}
+
+	/** Wrap a call scram() with the timeout functionality. */
+	private void scramWithTimeLimit() {
+		scramTimedOut= runWithDeadline(this::scram, SCRAM_TIMEOUT);
+		// A scram that never started leaves McDiver in the seek sewer; put him where
+		// scram() would have, so the steps left are measured in the scram sewer.
+		if (phaseSkipped) position= scramStart();
+	}
+
+	/** Run phase on PHASE_EXECUTOR with a deadline seconds from now and wait for it <br>
+	 * to finish, but for no longer than the deadline. Return true iff it timed out.
+	 *
+	 * A phase that times out is not killed: it is interrupted and, the next time the <br>
+	 * sewer diver calls a method of this state, a PhaseTimeoutException ends it. <br>
+	 * Since the expiry is recorded while holding this object's lock, which the moveTo <br>
+	 * methods also hold, the position cannot change after this method returns. <br>
+	 * A phase that ignores interrupts and never calls such a method runs on as a <br>
+	 * runaway, holding its thread, until it returns. <br>
+	 * If MAX_RUNAWAY_PHASES runaway phases are still running, the phase is not started <br>
+	 * and times out at once. phaseSkipped tells whether the phase never started. */
+	private boolean runWithDeadline(Runnable phase, long seconds) {
+		phaseSkipped= false;
+		if (RUNAWAY_PHASES.get() >= MAX_RUNAWAY_PHASES) {
+			printErr(MAX_RUNAWAY_PHASES + " timed-out phases are still running, " +
+				"so this phase was not started; it counts as timed out.");
+			expired= true;
+			phaseSkipped= true;
+			return true;
+		}
+		expired= false;
+		deadline= System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		hasDeadline= true;
+		// state goes from QUEUED to RUNNING when the phase starts, and then to DONE when
+		// it returns or to RUNAWAY when it is abandoned, whichever comes first. A phase
+		// abandoned before it starts never runs; a runaway one uncounts itself on return.
+		AtomicInteger state= new AtomicInteger(QUEUED);
+		Future<?> f= PHASE_EXECUTOR.submit(() -> {
+			if (!state.compareAndSet(QUEUED, RUNNING)) return;
+			try {
+				phase.run();
+			} finally {
+				if (!state.compareAndSet(RUNNING, DONE)) RUNAWAY_PHASES.decrementAndGet();
 			}
 		});
-
-		Thread t= new Thread(ft);
-		t.start();
 		try {
-			ft.get(SEEK_TIMEOUT, TimeUnit.SECONDS);
+			f.get(seconds, TimeUnit.SECONDS);
 		} catch (TimeoutException e) {
-			t.stop();
-			seekTimedOut= true;
-		} catch (InterruptedException | ExecutionException e) {
-			System.err.println("ERROR");
-			// Shouldn't happen
+			synchronized (this) {
+				expired= true;
+			}
+			phaseSkipped= abandon(f, state);
+		} catch (InterruptedException e) {
+			synchronized (this) {
+				expired= true;
+			}
+			phaseSkipped= abandon(f, state);
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			System.err.println("ERROR"); // Shouldn't happen: the phases catch everything
+		} finally {
+			hasDeadline= false;
+		}
+		return expired;
+	}
+
+	/** Interrupt the phase of f, whose state is state, and count it as a runaway <br>
+	 * if it has started and not yet returned. Return true iff it never started. */
+	private static boolean abandon(Future<?> f, AtomicInteger state) {
+		boolean skipped= state.compareAndSet(QUEUED, DONE);
+		if (!skipped && state.compareAndSet(RUNNING, RUNAWAY)) {
+			RUNAWAY_PHASES.incrementAndGet();
+		}
+		f.cancel(true);
+		return skipped;
+	}
+
+	/** Throw a PhaseTimeoutException if the current phase has run past its deadline. */
+	private void checkDeadline() {
+		if (expired || hasDeadline && System.nanoTime() - deadline >= 0) {
+			expired= true;
+			throw new PhaseTimeoutException();
+		}
+	}
+
+	/** Return an executor for the timed phases: one that starts a virtual thread per <br>
+	 * task if this JDK supports virtual threads, and otherwise a pool of reusable <br>
+	 * daemon threads. */
+	private static ExecutorService createPhaseExecutor() {
+		try {
+			return (ExecutorService) Executors.class
+				.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException | UnsupportedOperationException e) {
+			return Executors.newCachedThreadPool((r) -> {
+				Thread t= new Thread(r, "game-phase");
+				t.setDaemon(true);
+				return t;
+			});
 		}
 	}
 
@@ -226,51 +390,36 @@ public class GameState implements SeekState, ScramState {
 			if (position.equals(seekSewer.ring())) {
 				seekSucceeded= true;
 			} else {
-				errPrintln("Your solution to find returned at the wrong location.");
+				printErr("Your solution to find returned at the wrong location.");
 				gui.ifPresent(
 					(g) -> g.displayError("Your solution to find returned at the wrong location."));
 			}
+		} catch (PhaseTimeoutException e) {
+			return;
 		} catch (Throwable t) {
-			if (t instanceof ThreadDeath) return;
-			errPrintln("Your code errored during the find phase.");
+			printErr("Your code errored during the find phase.");
 			gui.ifPresent((g) -> g.displayError(
 				"Your code errored during the find phase. Please see console output."));
-			errPrintln("Here is the error that occurred.");
+			printErr("Here is the error that occurred.");
 			t.printStackTrace();
 			seekErred= true;
 		}
 	}
 
-	@SuppressWarnings("deprecation")
-	/** Wrap a call scram() with the timeout functionality. */
-	private void scramWithTimeLimit() {
-		FutureTask<Void> ft= new FutureTask<>(new Callable<Void>() {
-			@Override
-			public Void call() {
-				scram();
-				return null;
-			}
-		});
-
-		Thread t= new Thread(ft);
-		t.start();
-		try {
-			ft.get(SCRAM_TIMEOUT, TimeUnit.SECONDS);
-		} catch (TimeoutException e) {
-			t.stop();
-			scramTimedOut= true;
-		} catch (InterruptedException | ExecutionException e) {
-			System.err.println("ERROR"); // Shouldn't happen
-		}
+	/** Return the node of the scram sewer where the scram phase starts: the tile <br>
+	 * of the seek sewer's ring. */
+	private Node scramStart() {
+		Tile ringTile= seekSewer.ring().getTile();
+		return scramSewer.nodeAt(ringTile.row(), ringTile.column());
 	}
 
 	/** Handle the logic for running the sewerDiver's scram() procedure with no timeout. */
 	/* package */ void scram() {
 		stage= Stage.SCRAM;
-		Tile ringTile= seekSewer.ring().getTile();
-		position= scramSewer.nodeAt(ringTile.row(), ringTile.column());
+		position= scramStart();
 		minScramDistance= scramSewer.minPathLengthToRing(position);
 		stepsToGo= computeStepsToScram();
+		scramStepsBudget= stepsToGo;
 		gui.ifPresent((g) -> g.getOptionsPanel().changePhaseLabel("scram phase"));
 		gui.ifPresent((g) -> g.setLighting(true));
 		gui.ifPresent((g) -> g.updateSewer(scramSewer, stepsToGo));
@@ -286,7 +435,7 @@ public class GameState implements SeekState, ScramState {
 			sewerDiver.scram(this);
 			// Verify that the diver returned at the correct location
 			if (!position.equals(scramSewer.ring())) {
-				errPrintln("Your solution to scram returned at the wrong location.");
+				printErr("Your solution to scram returned at the wrong location.");
 				gui.ifPresent((g) -> g
 					.displayError("Your solution to scram returned at the wrong location."));
 				return;
@@ -294,29 +443,30 @@ public class GameState implements SeekState, ScramState {
 
 			scramSucceeded= true;
 			gui.ifPresent((g) -> g.getOptionsPanel().changePhaseLabel("scram done!"));
-			System.out.println("Scram Succeeded!");
+			printOut("Scram Succeeded!");
 			// Since the exit has been reached, turn off painting the
 			GUI g= gui.isPresent() ? gui.get() : null;
 			gui.MazePanel mp= g == null ? null : g.getMazePanel();
 			if (mp != null) mp.repaint();
 
 		} catch (OutOfTimeException e) {
-			errPrintln("Your solution to scram ran out of steps before returning!");
+			printErr("Your solution to scram ran out of steps before returning!");
 			gui.ifPresent((g) -> g
 				.displayError("Your solution to scram ran out of steps before returning!"));
+		} catch (PhaseTimeoutException e) {
+			return;
 		} catch (Throwable t) {
-			if (t instanceof ThreadDeath) return;
-			errPrintln("Your code errored during the scram phase.");
+			printErr("Your code errored during the scram phase.");
 			gui.ifPresent((g) -> g.displayError(
 				"Your code errored during the scram phase. Please see console output."));
 			t.printStackTrace();
 			scramErred= true;
 		}
 
-		outPrintln("Coins collected   : " + getCoinsCollected());
+		printOut("Coins collected   : " + getCoinsCollected());
 		DecimalFormat df= new DecimalFormat("#.##");
-		outPrintln("Bonus multiplier : " + df.format(computeBonusFactor()));
-		outPrintln("Score            : " + getScore());
+		printOut("Bonus multiplier : " + df.format(computeBonusFactor()));
+		printOut("Score            : " + getScore());
 	}
 
 	/** Making sure the sewerDiver always has the minimum steps needed to get out, <br>
@@ -343,21 +493,53 @@ public class GameState implements SeekState, ScramState {
 	 *
 	 * @param id The Id of the neighboring Node to move to */
 	@Override
-	public void moveTo(long id) {
+	public synchronized void moveTo(long id) {
+		if (tryMoveTo(id) != MoveStatus.MOVED) {
+			throw new IllegalArgumentException("moveTo: Node must be adjacent to position");
+		}
+	}
+
+	/** See SeekState.tryMoveTo(long). */
+	@Override
+	public synchronized MoveStatus tryMoveTo(long id) {
 		if (stage != Stage.SEEK) {
-			throw new IllegalStateException("moveTo(ID) can only be called while scramming!");
+			throw new IllegalStateException("moveTo(ID) can only be called while seeking!");
 		}
+		checkDeadline();
 
-		for (Node n : position.getNeighbors()) {
-			if (n.getId() == id) {
-				position= n;
-				stepsTaken++ ;
-				gui.ifPresent((g) -> g.updateBonus(computeBonusFactor()));
-				gui.ifPresent((g) -> g.moveTo(n));
-				return;
-			}
+		Direction d= seekNeighbor(id);
+		if (d == null) return MoveStatus.NOT_ADJACENT;
+		Node n= seekSewer.nodeAt(position.getTile().row() + d.rowOffset(),
+			position.getTile().column() + d.columnOffset());
+		position= n;
+		stepsTaken++ ;
+		gui.ifPresent((g) -> g.updateBonus(computeBonusFactor()));
+		gui.ifPresent((g) -> g.moveTo(n));
+		return MoveStatus.MOVED;
+	}
+
+	/** See SeekState.isAdjacent(long). */
+	@Override
+	public synchronized boolean isAdjacent(long id) {
+		if (stage != Stage.SEEK) {
+			throw new IllegalStateException("isAdjacent(ID) can only be called while seeking!");
+		}
+		checkDeadline();
+
+		return seekNeighbor(id) != null;
+	}
+
+	/** Return the direction from position to its neighbor with id id <br>
+	 * ---or null if position has no such neighbor. <br>
+	 * This looks at the (at most four) neighbor slots of position's tile in <br>
+	 * seekSewer's tables. */
+	private Direction seekNeighbor(long id) {
+		int r= position.getTile().row();
+		int c= position.getTile().column();
+		for (Direction d : DIRECTIONS) {
+			if (seekSewer.neighborId(r, c, d) == id) return d;
 		}
-		throw new IllegalArgumentException("moveTo: Node must be adjacent to position");
+		return null;
 	}
 
 	/** Return the unique id of the current location. */
@@ -366,6 +548,7 @@ public class GameState implements SeekState, ScramState {
 		if (stage != Stage.SEEK) {
 			throw new IllegalStateException("getLocation() can be called only while scramming!");
 		}
+		checkDeadline();
 
 		return position.getId();
 	}
@@ -377,19 +560,64 @@ public class GameState implements SeekState, ScramState {
 		if (stage != Stage.SEEK) {
 			throw new IllegalStateException("getNeighbors() can be called only while scramming!");
 		}
+		checkDeadline();
 
-		Collection<NodeStatus> options= new ArrayList<>();
-		for (Node n : position.getNeighbors()) {
-			int distance= computeDistanceToRing(n.getTile().row(), n.getTile().column());
-			options.add(new NodeStatus(n.getId(), distance));
+		if (neighborViews == null) {
+			neighborViews= new ArrayList<>(
+				Collections.nCopies(seekSewer.rowCount() * seekSewer.columnCount(), null));
+		}
+		int cell= position.getTile().row() * seekSewer.columnCount() + position.getTile().column();
+		Collection<NodeStatus> options= neighborViews.get(cell);
+		if (options == null) {
+			List<NodeStatus> list= new ArrayList<>(position.getNeighbors().size());
+			for (Node n : position.getNeighbors()) {
+				int distance= computeDistanceToRing(n.getTile().row(), n.getTile().column());
+				list.add(new NodeStatus(n.getId(), distance));
+			}
+			options= Collections.unmodifiableList(list);
+			neighborViews.set(cell, options);
 		}
 		return options;
 	}
 
+	/** See SeekState.neighbors(long[], int[]). */
+	@Override
+	public int neighbors(long[] ids, int[] distances) {
+		if (stage != Stage.SEEK) {
+			throw new IllegalStateException("getNeighbors() can be called only while scramming!");
+		}
+		checkDeadline();
+
+		int r= position.getTile().row();
+		int c= position.getTile().column();
+		int k= 0;
+		for (Direction dir : DIRECTIONS) {
+			if (seekSewer.neighborId(r, c, dir) >= 0) k++ ;
+		}
+		if (ids.length < k || distances.length < k) {
+			throw new IllegalArgumentException("neighbors: arrays must have room for " + k + " neighbors");
+		}
+		// Insertion sort by (distance, id): there are at most four neighbors.
+		int i= 0;
+		for (Direction dir : DIRECTIONS) {
+			long id= seekSewer.neighborId(r, c, dir);
+			if (id < 0) continue;
+			int d= computeDistanceToRing(r + dir.rowOffset(), c + dir.columnOffset());
+			int j= i++ ;
+			while (j > 0 && (distances[j - 1] > d || distances[j - 1] == d && ids[j - 1] > id)) {
+				ids[j]= ids[j - 1];
+				distances[j]= distances[j - 1];
+				j-- ;
+			}
+			ids[j]= id;
+			distances[j]= d;
+		}
+		return k;
+	}
+
 	/** Return the Manhattan distance from (row, col) to the ring */
 	private int computeDistanceToRing(int row, int col) {
-		return Math.abs(row - seekSewer.ring().getTile().row()) +
-			Math.abs(col - seekSewer.ring().getTile().column());
+		return seekSewer.ringDistance(row, col);
 	}
 
 	/** Return the Manhattan distance from the current location <br>
@@ -400,6 +628,7 @@ public class GameState implements SeekState, ScramState {
 			throw new IllegalStateException(
 				"distanceToRing() can be called only while scramming!");
 		}
+		checkDeadline();
 
 		return computeDistanceToRing(position.getTile().row(), position.getTile().column());
 	}
@@ -410,6 +639,7 @@ public class GameState implements SeekState, ScramState {
 			throw new IllegalStateException("getCurrentNode: Error, " +
 				"current Node may not be accessed unless scramming");
 		}
+		checkDeadline();
 		return position;
 	}
 
@@ -419,6 +649,7 @@ public class GameState implements SeekState, ScramState {
 			throw new IllegalStateException("getEntrance: Error, " +
 				"current Node may not be accessed unless scramming");
 		}
+		checkDeadline();
 		return scramSewer.ring();
 	}
 
@@ -428,6 +659,7 @@ public class GameState implements SeekState, ScramState {
 			throw new IllegalStateException("getVertices: Error, " +
 				"Vertices may not be accessed unless scramming");
 		}
+		checkDeadline();
 		return Collections.unmodifiableSet(scramSewer.graph());
 	}
 
@@ -436,15 +668,18 @@ public class GameState implements SeekState, ScramState {
 	 * if <tt>n</tt> is not neighboring. <br>
 	 * Increment the steps taken if successful. */
 	@Override
-	public void moveTo(Node n) {
+	public synchronized void moveTo(Node n) {
 		if (stage != Stage.SCRAM) {
 			throw new IllegalStateException("Call moveTo(Node) only when scramming!");
 		}
-		int distance= position.getEdge(n).length;
+		checkDeadline();
+		Tile t= position.getTile();
+		Direction d= Direction.between(t, n.getTile());
+		if (d == null || scramSewer.neighborId(t.row(), t.column(), d) != n.getId())
+			throw new IllegalArgumentException("moveTo: Node must be adjacent to position");
+		int distance= scramSewer.edgeWeight(t.row(), t.column(), d);
 		if (stepsToGo - distance < 0) throw new OutOfTimeException();
 
-		if (!position.getNeighbors().contains(n))
-			throw new IllegalArgumentException("moveTo: Node must be adjacent to position");
 		position= n;
 		stepsToGo-= distance;
 		gui.ifPresent((g) -> g.updateStepsToGo(stepsToGo));
@@ -470,6 +705,7 @@ public class GameState implements SeekState, ScramState {
 			throw new IllegalStateException(
 				"stepsToGo() can be called only while scramming!");
 		}
+		checkDeadline();
 		return stepsToGo;
 	}
 
@@ -514,6 +750,36 @@ public class GameState implements SeekState, ScramState {
 		return minScramDistance;
 	}
 
+	/* package */ long getSeed() {
+		return seed;
+	}
+
+	/** Return the number of steps taken in the seek phase. */
+	/* package */ int getSeekSteps() {
+		return stepsTaken;
+	}
+
+	/* package */ int getMinSeekSteps() {
+		return minSeekSteps;
+	}
+
+	/** Return the number of steps used in the scram phase (0 if it did not start). */
+	/* package */ int getScramStepsUsed() {
+		return stage == Stage.SCRAM ? scramStepsBudget - stepsToGo : 0;
+	}
+
+	/* package */ int getScramStepsBudget() {
+		return scramStepsBudget;
+	}
+
+	/* package */ long getSeekNanos() {
+		return seekNanos;
+	}
+
+	/* package */ long getScramNanos() {
+		return scramNanos;
+	}
+
 	/* package */ int getSeekStepsLeft() {
 		return seekStepsLeft;
 	}
@@ -538,8 +804,10 @@ public class GameState implements SeekState, ScramState {
 
 	/** Execute seek-ring and scram on a random seed, except that: <br>
 	 * (1) If there is a parameter -s <seed>, run on that seed OR <br>
-	 * (2) If there is a parameter -n <count>, run count times on random seeds. */
-	public static void main(String[] args) throws IOException {
+	 * (2) If there is a parameter -n <count>, run count times on random seeds. <br>
+	 * If there is a parameter -t <threads>, run the games headless on that many <br>
+	 * worker threads and print per-game measurements and their percentiles. */
+	public static void main(String[] args) throws IOException, InterruptedException {
 		List<String> argList= new ArrayList<>(Arrays.asList(args));
 		int repeatNumberIndex= argList.indexOf("-n");
 		int numTimesToRun= 1;
@@ -564,6 +832,20 @@ public class GameState implements SeekState, ScramState {
 			}
 		}
 
+		int threadsIndex= argList.indexOf("-t");
+		if (threadsIndex >= 0) {
+			int threads;
+			try {
+				threads= Integer.parseInt(argList.get(threadsIndex + 1));
+			} catch (NumberFormatException | IndexOutOfBoundsException e) {
+				errPrintln("Error, -t must be followed by a number of threads");
+				return;
+			}
+			BatchRunner runner= new BatchRunner(seed, numTimesToRun, threads, McDiver::new);
+			BatchRunner.report(runner.run(), System.out);
+			return;
+		}
+
 		int totalScore= 0;
 		for (int i= 0; i < numTimesToRun; i++ ) {
 			totalScore+= runNewGame(seed, false, new McDiver());
@@ -574,6 +856,23 @@ public class GameState implements SeekState, ScramState {
 		outPrintln("Average score : " + totalScore / numTimesToRun);
 	}
 
+	/** Turn this game's console output on or off: a quiet game prints nothing, <br>
+	 * whatever shouldPrint is. Unlike shouldPrint, this affects no other game, <br>
+	 * so games running concurrently can each choose. */
+	/* package */ void setQuiet(boolean q) {
+		quiet= q;
+	}
+
+	/** Print s on System.out, unless this game is quiet. */
+	private void printOut(String s) {
+		if (!quiet) outPrintln(s);
+	}
+
+	/** Print s on System.err, unless this game is quiet. */
+	private void printErr(String s) {
+		if (!quiet) errPrintln(s);
+	}
+
 	static void outPrintln(String s) {
 		if (shouldPrint) System.out.println(s);
 	}
@@ -0,0 +1,454 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/** An instance answers point-to-point shortest-path queries over a large SewerGraph <br>
+ * with a two-level (HPA*-style) hierarchy.
+ *
+ * The grid is cut into square clusters of clusterSize x clusterSize tiles. A node with <br>
+ * an edge into another cluster is a border node. The abstract graph has a node per <br>
+ * border node and two kinds of edges: the edges of the graph between clusters, and, <br>
+ * for each pair of border nodes of the same cluster, an edge whose length is that of a <br>
+ * shortest path between them inside the cluster. These are computed once, in parallel, <br>
+ * cluster by cluster. Every path leaves a cluster through a border node, so distances <br>
+ * between border nodes in the abstract graph are exact.
+ *
+ * A query searches the source's cluster from the source and the target's cluster from <br>
+ * the target, then runs A* over the abstract graph from the source's border nodes to <br>
+ * the target's, and finally refines each edge between border nodes of one cluster <br>
+ * into a path inside it. Only the two end clusters and the clusters on the path are <br>
+ * searched at the level of the graph, so long queries settle far fewer nodes.
+ *
+ * The abstract search is weighted A*: with bound w >= 1, each heuristic estimate is <br>
+ * multiplied by w, and the path found is at most w times as long as a shortest one. <br>
+ * With w = EXACT (1) the paths are shortest paths; a larger w settles fewer nodes. <br>
+ * The bound can be changed between queries, since the hierarchy does not depend on it. <br>
+ * Like DijkstraSearch, an instance reuses its arrays from query to query and is not <br>
+ * thread-safe. */
+public final class HierarchicalSearch implements PathSearch {
+
+	/** The bound that makes every path found a shortest path. */
+	public static final double EXACT= 1.0;
+
+	/** The default number of rows and columns of tiles in a cluster. */
+	public static final int DEFAULT_CLUSTER_SIZE= 16;
+
+	/** The graph, the heuristic guiding the abstract search, and the bound w. */
+	private final SewerGraph graph;
+	private final AStarSearch.Heuristic heuristic;
+	private double bound= EXACT;
+
+	/** The number of rows and columns of tiles in a cluster, and the number of columns <br>
+	 * of clusters. Cluster c covers rows (c / clusterCols) * size .. +size-1 and <br>
+	 * columns (c % clusterCols) * size .. +size-1 of the grid. */
+	private final int size;
+	private final int clusterCols;
+
+	/** For each node v: clusterOf[v] is its cluster, and absOf[v] is its abstract node, <br>
+	 * or -1 if v is not a border node. */
+	private final int[] clusterOf;
+	private final int[] absOf;
+
+	/** The abstract graph, with abstract nodes 0..border.length-1: border[a] is the node <br>
+	 * of abstract node a. The abstract nodes of cluster c are firstBorder[c] .. <br>
+	 * firstBorder[c+1]-1. The edges leaving a are absTarget[e] and absWeight[e] for e in <br>
+	 * absOffset[a] .. absOffset[a+1]-1. */
+	private final int[] border;
+	private final int[] firstBorder;
+	private final int[] absOffset;
+	private final int[] absTarget;
+	private final int[] absWeight;
+
+	/** Searches inside one cluster: from the source, from the target, and for refining <br>
+	 * an abstract edge. */
+	private final ClusterSearch fromSrc;
+	private final ClusterSearch fromDst;
+	private final ClusterSearch refine;
+
+	/** The abstract search, over the abstract nodes and one more, goal (= border.length), <br>
+	 * which stands for the target. For a reached abstract node a: dist[a] is the length <br>
+	 * of the shortest known path from the source to a, and pred[a] is the abstract node <br>
+	 * before a on it (-1 if it starts at the source). reached[a] = round iff a was <br>
+	 * reached in the current round, and closed[a] = round iff a is settled. */
+	private final int goal;
+	private final IntMinHeap frontier;
+	private final int[] dist;
+	private final int[] pred;
+	private final int[] reached;
+	private final int[] closed;
+	private int round;
+
+	/** The number of nodes settled by the last query, at both levels. */
+	private int settledCount;
+
+	/** A buffer for building paths, and its number of nodes. */
+	private int[] buf= new int[64];
+	private int len;
+
+	/** Constructor: an exact search over g, with clusters of DEFAULT_CLUSTER_SIZE <br>
+	 * tiles on a side, guided by the Manhattan-distance heuristic. */
+	public HierarchicalSearch(SewerGraph g) {
+		this(g, DEFAULT_CLUSTER_SIZE, AStarSearch.manhattan(g));
+	}
+
+	/** Constructor: an exact search over g, with clusters of clusterSize tiles on a <br>
+	 * side, guided by heuristic h, which should be consistent (e.g. Landmarks). <br>
+	 * Throw an IllegalArgumentException if clusterSize < 1. */
+	public HierarchicalSearch(SewerGraph g, int clusterSize, AStarSearch.Heuristic h) {
+		if (clusterSize < 1) {
+			throw new IllegalArgumentException("clusterSize must be positive: " + clusterSize);
+		}
+		graph= g;
+		heuristic= h;
+		size= clusterSize;
+		clusterCols= (g.columnCount() + size - 1) / size;
+		int clusterCount= (g.rowCount() + size - 1) / size * clusterCols;
+		int n= g.size();
+
+		// Find the border nodes and number them cluster by cluster.
+		clusterOf= new int[n];
+		absOf= new int[n];
+		firstBorder= new int[clusterCount + 1];
+		for (int v= 0; v < n; v++ ) {
+			clusterOf[v]= g.row(v) / size * clusterCols + g.column(v) / size;
+		}
+		int borders= 0;
+		for (int v= 0; v < n; v++ ) {
+			absOf[v]= -1;
+			for (int e= g.firstEdge(v); e < g.endEdge(v); e++ ) {
+				if (clusterOf[g.target(e)] != clusterOf[v]) {
+					absOf[v]= 0;
+					firstBorder[clusterOf[v] + 1]++ ;
+					borders++ ;
+					break;
+				}
+			}
+		}
+		for (int c= 0; c < clusterCount; c++ ) {
+			firstBorder[c + 1]+= firstBorder[c];
+		}
+		border= new int[borders];
+		int[] next= Arrays.copyOf(firstBorder, clusterCount);
+		for (int v= 0; v < n; v++ ) {
+			if (absOf[v] == 0) {
+				absOf[v]= next[clusterOf[v]]++ ;
+				border[absOf[v]]= v;
+			}
+		}
+
+		// Compute the abstract edges of each cluster; the clusters are independent, so
+		// they are split into one contiguous chunk per worker, each with its own search.
+		int[][] targets= new int[borders][];
+		int[][] weights= new int[borders][];
+		int chunks= Math.max(1, Math.min(clusterCount, ForkJoinPool.getCommonPoolParallelism() + 1));
+		IntStream.range(0, chunks).parallel().forEach((k) -> {
+			ClusterSearch search= new ClusterSearch();
+			int lo= (int) ((long) clusterCount * k / chunks);
+			int hi= (int) ((long) clusterCount * (k + 1) / chunks);
+			for (int c= lo; c < hi; c++ ) {
+				for (int a= firstBorder[c]; a < firstBorder[c + 1]; a++ ) {
+					abstractEdges(search, a, targets, weights);
+				}
+			}
+		});
+
+		absOffset= new int[borders + 1];
+		for (int a= 0; a < borders; a++ ) {
+			absOffset[a + 1]= absOffset[a] + targets[a].length;
+		}
+		absTarget= new int[absOffset[borders]];
+		absWeight= new int[absOffset[borders]];
+		for (int a= 0; a < borders; a++ ) {
+			System.arraycopy(targets[a], 0, absTarget, absOffset[a], targets[a].length);
+			System.arraycopy(weights[a], 0, absWeight, absOffset[a], weights[a].length);
+		}
+
+		fromSrc= new ClusterSearch();
+		fromDst= new ClusterSearch();
+		refine= new ClusterSearch();
+		goal= borders;
+		frontier= new IntMinHeap(borders + 1);
+		dist= new int[borders + 1];
+		pred= new int[borders + 1];
+		reached= new int[borders + 1];
+		closed= new int[borders + 1];
+	}
+
+	/** Store in targets[a] and weights[a] the edges leaving abstract node a: one to each <br>
+	 * other border node of its cluster that it can reach inside the cluster, found with <br>
+	 * search, and its edges into other clusters. */
+	private void abstractEdges(ClusterSearch search, int a, int[][] targets, int[][] weights) {
+		int v= border[a];
+		int c= clusterOf[v];
+		search.run(v, c, -1);
+		int max= firstBorder[c + 1] - firstBorder[c] - 1 + graph.degree(v);
+		int[] t= new int[max];
+		int[] w= new int[max];
+		int k= 0;
+		for (int b= firstBorder[c]; b < firstBorder[c + 1]; b++ ) {
+			int d= search.distance(border[b]);
+			if (b != a && d != Integer.MAX_VALUE) {
+				t[k]= b;
+				w[k]= d;
+				k++ ;
+			}
+		}
+		for (int e= graph.firstEdge(v); e < graph.endEdge(v); e++ ) {
+			int x= graph.target(e);
+			if (clusterOf[x] != c) {
+				t[k]= absOf[x];
+				w[k]= graph.weight(e);
+				k++ ;
+			}
+		}
+		targets[a]= Arrays.copyOf(t, k);
+		weights[a]= Arrays.copyOf(w, k);
+	}
+
+	@Override
+	public SewerGraph graph() {
+		return graph;
+	}
+
+	/** Return the bound: every path found is at most bound times as long as a shortest one. */
+	public double bound() {
+		return bound;
+	}
+
+	/** Make every path found at most w times as long as a shortest one; w = EXACT makes <br>
+	 * them shortest paths. <br>
+	 * Throw an IllegalArgumentException if w < 1. */
+	public void setBound(double w) {
+		if (!(w >= EXACT)) throw new IllegalArgumentException("bound must be >= 1: " + w);
+		bound= w;
+	}
+
+	/** Return the number of clusters. */
+	public int clusterCount() {
+		return firstBorder.length - 1;
+	}
+
+	/** Return the number of nodes of the abstract graph. */
+	public int abstractSize() {
+		return border.length;
+	}
+
+	/** Return the number of edges of the abstract graph. */
+	public int abstractEdgeCount() {
+		return absTarget.length;
+	}
+
+	/** Run the query from src to dst, returning the length of the path found, <br>
+	 * or -1 if there is none. Afterward the path runs from the source through <br>
+	 * pred[pred[goal]], pred[goal], ... if pred[goal] >= 0, and directly inside <br>
+	 * the source's cluster otherwise. */
+	private int run(int src, int dst) {
+		round++ ;
+		frontier.clear();
+		int cs= clusterOf[src];
+		int ct= clusterOf[dst];
+		fromSrc.run(src, cs, -1);
+		fromDst.run(dst, ct, -1);
+		settledCount= fromSrc.settled + fromDst.settled;
+
+		if (cs == ct && fromSrc.distance(dst) != Integer.MAX_VALUE) {
+			reach(goal, fromSrc.distance(dst), -1, dst);
+		}
+		for (int a= firstBorder[cs]; a < firstBorder[cs + 1]; a++ ) {
+			int d= fromSrc.distance(border[a]);
+			if (d != Integer.MAX_VALUE) reach(a, d, -1, dst);
+		}
+
+		while (!frontier.isEmpty()) {
+			int f= frontier.poll();
+			if (f == goal) return dist[goal];
+			closed[f]= round;
+			settledCount++ ;
+			for (int e= absOffset[f]; e < absOffset[f + 1]; e++ ) {
+				reach(absTarget[e], dist[f] + absWeight[e], f, dst);
+			}
+			if (clusterOf[border[f]] == ct) {
+				int d= fromDst.distance(border[f]);
+				if (d != Integer.MAX_VALUE) reach(goal, dist[f] + d, f, dst);
+			}
+		}
+		return -1;
+	}
+
+	/** Record that abstract node a (or goal) can be reached by a path of length d <br>
+	 * whose previous abstract node is p, if that is shorter than any known path and <br>
+	 * a is not settled. The target is node dst. */
+	private void reach(int a, int d, int p, int dst) {
+		if (reached[a] == round && (d >= dist[a] || closed[a] == round)) return;
+		reached[a]= round;
+		dist[a]= d;
+		pred[a]= p;
+		int h= a == goal ? 0 : (int) (bound * heuristic.estimate(border[a], dst));
+		frontier.addOrDecrease(a, d + h);
+	}
+
+	@Override
+	public int distance(int src, int dst) {
+		if (src == dst) {
+			settledCount= 0;
+			return 0;
+		}
+		return run(src, dst);
+	}
+
+	@Override
+	public int[] path(int src, int dst) {
+		if (src == dst) {
+			settledCount= 0;
+			return new int[] { src };
+		}
+		if (run(src, dst) < 0) return new int[0];
+
+		len= 0;
+		if (pred[goal] < 0) {
+			append(fromSrc.pathTo(dst), 0);
+			return Arrays.copyOf(buf, len);
+		}
+
+		// The abstract nodes of the path, from the source's cluster to the target's.
+		int k= 0;
+		for (int a= pred[goal]; a >= 0; a= pred[a]) {
+			k++ ;
+		}
+		int[] abs= new int[k];
+		for (int a= pred[goal], i= k - 1; a >= 0; a= pred[a], i-- ) {
+			abs[i]= a;
+		}
+
+		append(fromSrc.pathTo(border[abs[0]]), 0);
+		for (int i= 0; i + 1 < k; i++ ) {
+			int u= border[abs[i]];
+			int v= border[abs[i + 1]];
+			if (clusterOf[u] != clusterOf[v]) {
+				append(v);
+			} else {
+				refine.run(u, clusterOf[u], v);
+				settledCount+= refine.settled;
+				append(refine.pathTo(v), 1);
+			}
+		}
+		// fromDst ran from the target, so its predecessors lead toward the target.
+		for (int v= fromDst.pred(border[abs[k - 1]]); v >= 0; v= fromDst.pred(v)) {
+			append(v);
+		}
+		return Arrays.copyOf(buf, len);
+	}
+
+	/** Append node v to the path being built. */
+	private void append(int v) {
+		if (len == buf.length) buf= Arrays.copyOf(buf, 2 * len);
+		buf[len++ ]= v;
+	}
+
+	/** Append p[from..] to the path being built. */
+	private void append(int[] p, int from) {
+		for (int i= from; i < p.length; i++ ) {
+			append(p[i]);
+		}
+	}
+
+	@Override
+	public int settledCount() {
+		return settledCount;
+	}
+
+	/** An instance runs Dijkstra's algorithm restricted to the nodes of one cluster. <br>
+	 * Its arrays are indexed by the position of a tile in the cluster, so they have <br>
+	 * size * size entries whatever the size of the graph. */
+	private final class ClusterSearch {
+		/** The frontier set, of positions. */
+		private final IntMinHeap heap= new IntMinHeap(size * size);
+
+		/** For a position p reached in the current round: dist[p] is the length of the <br>
+		 * shortest known path from the source to the node at p, and pred[p] is the node <br>
+		 * before it on that path (-1 for the source). reached[p] = round iff p was <br>
+		 * reached in the current round. */
+		private final int[] dist= new int[size * size];
+		private final int[] pred= new int[size * size];
+		private final int[] reached= new int[size * size];
+		private int round;
+
+		/** The cluster searched by the last run, its first row and column, and the <br>
+		 * number of nodes that run settled. */
+		private int cluster;
+		private int row0;
+		private int col0;
+		private int settled;
+
+		/** Run Dijkstra's algorithm from node src over the nodes of cluster c, stopping <br>
+		 * once node stop is settled (never, if stop is -1). */
+		void run(int src, int c, int stop) {
+			round++ ;
+			cluster= c;
+			row0= c / clusterCols * size;
+			col0= c % clusterCols * size;
+			settled= 0;
+			heap.clear();
+			int p= pos(src);
+			reached[p]= round;
+			dist[p]= 0;
+			pred[p]= -1;
+			heap.add(p, 0);
+			while (!heap.isEmpty()) {
+				int fp= heap.poll();
+				int f= graph.indexAt(row0 + fp / size, col0 + fp % size);
+				settled++ ;
+				if (f == stop) return;
+				for (int e= graph.firstEdge(f); e < graph.endEdge(f); e++ ) {
+					int w= graph.target(e);
+					if (clusterOf[w] != c) continue;
+					int wp= pos(w);
+					int wDist= dist[fp] + graph.weight(e);
+					if (reached[wp] != round) {
+						reached[wp]= round;
+					} else if (wDist >= dist[wp]) {
+						continue;
+					}
+					dist[wp]= wDist;
+					pred[wp]= f;
+					heap.addOrDecrease(wp, wDist);
+				}
+			}
+		}
+
+		/** Return the position in the last searched cluster of node v. */
+		private int pos(int v) {
+			return (graph.row(v) - row0) * size + graph.column(v) - col0;
+		}
+
+		/** Return the length of the shortest path found from the source to node v, <br>
+		 * or Integer.MAX_VALUE if v was not reached. */
+		int distance(int v) {
+			if (clusterOf[v] != cluster) return Integer.MAX_VALUE;
+			int p= pos(v);
+			return reached[p] == round ? dist[p] : Integer.MAX_VALUE;
+		}
+
+		/** Return the node before v on the path found from the source to v <br>
+		 * (-1 if v is the source). Precondition: v was reached. */
+		int pred(int v) {
+			return pred[pos(v)];
+		}
+
+		/** Return the path found from the source to node v, the source first. <br>
+		 * Precondition: v was reached. */
+		int[] pathTo(int v) {
+			int k= 1;
+			for (int p= pred(v); p >= 0; p= pred(p)) {
+				k++ ;
+			}
+			int[] path= new int[k];
+			for (int p= v; p >= 0; p= pred(p)) {
+				path[--k]= p;
+			}
+			return path;
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package graph;
+
+import java.util.Arrays;
+
+/** An instance is a map from node ids (longs) to long values, for the seek phase, <br>
+ * where nodes are known only by their ids and so have no index (see Node.getIndex()).
+ *
+ * It is an open-addressing hash table with linear probing over parallel long arrays, <br>
+ * so unlike a HashMap<Long, Long> it boxes nothing and allocates nothing per entry. <br>
+ * Keys cannot be removed, which the divers never need. */
+public final class IdMap {
+
+	/** The largest fraction of the slots that may be full. */
+	private static final double MAX_LOAD= 0.5;
+
+	/** For each slot k: used[k] is true iff it holds key keys[k] with value vals[k]. <br>
+	 * The length of the arrays is a power of 2. */
+	private long[] keys;
+	private long[] vals;
+	private boolean[] used;
+
+	/** The number of keys of this map. */
+	private int size;
+
+	/** Constructor: an empty map. */
+	public IdMap() {
+		this(16);
+	}
+
+	/** Constructor: an empty map with room for about expectedSize keys. */
+	public IdMap(int expectedSize) {
+		int cap= Integer.highestOneBit(Math.max(4, (int) (expectedSize / MAX_LOAD)) - 1) << 1;
+		keys= new long[cap];
+		vals= new long[cap];
+		used= new boolean[cap];
+	}
+
+	/** Return the number of keys of this map. */
+	public int size() {
+		return size;
+	}
+
+	/** Return true iff id is a key of this map. */
+	public boolean containsKey(long id) {
+		return used[slot(id)];
+	}
+
+	/** Return the value of id. <br>
+	 * Throw an IllegalArgumentException if id is not a key of this map. */
+	public long get(long id) {
+		int k= slot(id);
+		if (!used[k]) throw new IllegalArgumentException("Id " + id + " is not in the map");
+		return vals[k];
+	}
+
+	/** Return the value of id, or otherwise if id is not a key of this map. */
+	public long getOrDefault(long id, long otherwise) {
+		int k= slot(id);
+		return used[k] ? vals[k] : otherwise;
+	}
+
+	/** Make v the value of id. */
+	public void put(long id, long v) {
+		int k= slot(id);
+		if (!used[k]) {
+			if (size + 1 > MAX_LOAD * keys.length) {
+				grow();
+				k= slot(id);
+			}
+			used[k]= true;
+			keys[k]= id;
+			size++ ;
+		}
+		vals[k]= v;
+	}
+
+	/** Return the slot holding id, or the empty slot where it would go. */
+	private int slot(long id) {
+		int mask= keys.length - 1;
+		int k= mix(id) & mask;
+		while (used[k] && keys[k] != id) {
+			k= k + 1 & mask;
+		}
+		return k;
+	}
+
+	/** Return a hash of id whose low bits depend on all of its bits, since ids are <br>
+	 * often grid cells, which cluster. */
+	private static int mix(long id) {
+		long h= id * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ h >>> 32);
+	}
+
+	/** Double the number of slots, rehashing every key. */
+	private void grow() {
+		long[] oldKeys= keys;
+		long[] oldVals= vals;
+		boolean[] oldUsed= used;
+		keys= new long[2 * oldKeys.length];
+		vals= new long[keys.length];
+		used= new boolean[keys.length];
+		for (int k= 0; k < oldKeys.length; k++ ) {
+			if (oldUsed[k]) {
+				int j= slot(oldKeys[k]);
+				used[j]= true;
+				keys[j]= oldKeys[k];
+				vals[j]= oldVals[k];
+			}
+		}
+	}
+
+	/** Remove every key from this map. */
+	public void clear() {
+		Arrays.fill(used, false);
+		size= 0;
+	}
+}
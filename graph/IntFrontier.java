@@ -0,0 +1,34 @@
+package graph;
+
+/** An implementation is the frontier set of a shortest-path search over a graph <br>
+ * whose nodes are the ints 0..n-1, with int priorities (distances). <br>
+ * A node is in the frontier at most once.
+ *
+ * Searches only ever poll nodes in nondecreasing order of priority, and never add <br>
+ * a node with a priority smaller than that of the last node polled; <br>
+ * implementations may rely on this. */
+/* package */ interface IntFrontier {
+
+	/** Return true iff the frontier is empty. */
+	boolean isEmpty();
+
+	/** Add node v with priority p. <br>
+	 * Precondition: v is not in the frontier. */
+	void add(int v, int p);
+
+	/** Lower the priority of node v to p. <br>
+	 * Precondition: v is in the frontier with a priority larger than p. */
+	void decrease(int v, int p);
+
+	/** Return the smallest priority in the frontier. <br>
+	 * Precondition: the frontier is not empty, and the next node added or decreased <br>
+	 * gets a priority no smaller than it (so the next node polled has that priority). */
+	int peekPriority();
+
+	/** Remove and return a node of the frontier with smallest priority. <br>
+	 * Precondition: the frontier is not empty. */
+	int poll();
+
+	/** Remove every node from the frontier, so that it can be used for another search. */
+	void clear();
+}
@@ -0,0 +1,248 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/** An instance is an indexed min-heap of distinct values in 0..capacity-1 <br>
+ * with int priorities.
+ *
+ * Unlike InternalMinHeap, it allocates nothing after construction: the tree is kept <br>
+ * in two parallel int arrays (values and priorities), and the position of each value <br>
+ * in the tree is kept in an int array indexed by the value instead of in a HashMap. <br>
+ * Each node of the tree has D children, which makes the tree shallower and keeps the <br>
+ * children of a node next to each other in memory. clear() empties the heap in time <br>
+ * proportional to its size, so one instance can serve many searches. */
+public final class IntMinHeap implements IntFrontier {
+
+	/** The number of children of each node of the tree. */
+	private static final int D= 4;
+
+	/** Class Invariant: <br>
+	 * 1. val[0..size-1] and pri[0..size-1] represent a complete D-ary tree, <br>
+	 * val[k] having priority pri[k]. val[0] is the root; <br>
+	 * for k > 0, (k-1)/D is the index of the parent of val[k], and <br>
+	 * D*k+1..D*k+D are the indexes of its children.
+	 *
+	 * 2. The values in val[0..size-1] are all different.
+	 *
+	 * 3. For k in 1..size-1, pri[k] >= (priority of val[k]'s parent).
+	 *
+	 * 4. pos[v] = k if v = val[k] for some k in 0..size-1, and pos[v] = -1 otherwise. */
+	private final int[] val;
+	private final int[] pri;
+	private final int[] pos;
+	private int size;
+
+	/** Constructor: an empty heap for the values 0..capacity-1. */
+	public IntMinHeap(int capacity) {
+		val= new int[capacity];
+		pri= new int[capacity];
+		pos= new int[capacity];
+		Arrays.fill(pos, -1);
+	}
+
+	/** Return the size of this heap. */
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/** Return true iff v is in this heap. */
+	public boolean contains(int v) {
+		return pos[v] >= 0;
+	}
+
+	/** Return the priority of v. <br>
+	 * Throw an IllegalArgumentException if v is not in the heap. */
+	public int priority(int v) {
+		if (pos[v] < 0) throw new IllegalArgumentException("v is not in the heap");
+		return pri[pos[v]];
+	}
+
+	/** Add v with priority p to the heap. <br>
+	 * Throw an IllegalArgumentException if v is already in the heap. */
+	@Override
+	public void add(int v, int p) {
+		if (pos[v] >= 0) throw new IllegalArgumentException("v is already in the heap");
+		val[size]= v;
+		pri[size]= p;
+		pos[v]= size;
+		size++ ;
+		bubbleUp(size - 1);
+	}
+
+	/** Lower the priority of v to p. <br>
+	 * Throw an IllegalArgumentException if v is not in the heap or p is larger <br>
+	 * than v's priority. */
+	public void decreaseKey(int v, int p) {
+		int k= pos[v];
+		if (k < 0) throw new IllegalArgumentException("v is not in the heap");
+		if (p > pri[k]) throw new IllegalArgumentException("p is larger than v's priority");
+		pri[k]= p;
+		bubbleUp(k);
+	}
+
+	/** For i in 0..n-1, lower the priority of vs[i] to ps[i], as decreaseKey would, <br>
+	 * e.g. for all the neighbors whose paths shrink when a node is settled. The <br>
+	 * entries are checked first and then each is bubbled up once; a value may occur <br>
+	 * more than once, and then it gets the least of its ps. <br>
+	 * Throw an IllegalArgumentException (without changing the heap) if some vs[i] is <br>
+	 * not in the heap or ps[i] is larger than its priority. */
+	public void decreaseKeys(int[] vs, int[] ps, int n) {
+		for (int i= 0; i < n; i++ ) {
+			int k= pos[vs[i]];
+			if (k < 0) throw new IllegalArgumentException("vs[" + i + "] is not in the heap");
+			if (ps[i] > pri[k]) throw new IllegalArgumentException(
+				"ps[" + i + "] is larger than the priority of vs[" + i + "]");
+		}
+		for (int i= 0; i < n; i++ ) {
+			int k= pos[vs[i]];
+			if (ps[i] < pri[k]) {
+				pri[k]= ps[i];
+				bubbleUp(k);
+			}
+		}
+	}
+
+	@Override
+	public void decrease(int v, int p) {
+		decreaseKey(v, p);
+	}
+
+	/** Add v with priority p if v is not in the heap; otherwise, if p is smaller <br>
+	 * than v's priority, lower it to p. Return true iff the heap changed. */
+	public boolean addOrDecrease(int v, int p) {
+		int k= pos[v];
+		if (k < 0) {
+			add(v, p);
+			return true;
+		}
+		if (p >= pri[k]) return false;
+		pri[k]= p;
+		bubbleUp(k);
+		return true;
+	}
+
+	/** Change the priority of v to p. <br>
+	 * Throw an IllegalArgumentException if v is not in the heap. */
+	public void changePriority(int v, int p) {
+		int k= pos[v];
+		if (k < 0) throw new IllegalArgumentException("v is not in the heap");
+		int old= pri[k];
+		pri[k]= p;
+		if (p < old) bubbleUp(k);
+		else bubbleDown(k);
+	}
+
+	/** Return the value at position k of the tree. Precondition: 0 <= k < size. */
+	/* package */ int valueAt(int k) {
+		return val[k];
+	}
+
+	/** Return the priority at position k of the tree. Precondition: 0 <= k < size. */
+	/* package */ int priorityAt(int k) {
+		return pri[k];
+	}
+
+	/** Return the value with lowest priority, without changing the heap. <br>
+	 * Throw a NoSuchElementException if the heap is empty. */
+	public int peek() {
+		if (size == 0) throw new NoSuchElementException("heap is empty");
+		return val[0];
+	}
+
+	/** Return the lowest priority in the heap, without changing the heap. <br>
+	 * Throw a NoSuchElementException if the heap is empty. */
+	@Override
+	public int peekPriority() {
+		if (size == 0) throw new NoSuchElementException("heap is empty");
+		return pri[0];
+	}
+
+	/** Remove and return the value with lowest priority. <br>
+	 * Throw a NoSuchElementException if the heap is empty. */
+	@Override
+	public int poll() {
+		if (size == 0) throw new NoSuchElementException("heap is empty");
+		int v= val[0];
+		pos[v]= -1;
+		size-- ;
+		if (size > 0) {
+			val[0]= val[size];
+			pri[0]= pri[size];
+			pos[val[0]]= 0;
+			bubbleDown(0);
+		}
+		return v;
+	}
+
+	/** Remove every value from the heap. <br>
+	 * Takes time proportional to the size of the heap, not its capacity. */
+	@Override
+	public void clear() {
+		for (int k= 0; k < size; k++ ) {
+			pos[val[k]]= -1;
+		}
+		size= 0;
+	}
+
+	/** Bubble val[k] up the tree to its right place. <br>
+	 * Precondition: the class invariant is true except that val[k] may belong <br>
+	 * above its parent. */
+	private void bubbleUp(int k) {
+		int v= val[k];
+		int p= pri[k];
+		while (k > 0) {
+			int parent= (k - 1) / D;
+			if (pri[parent] <= p) break;
+			val[k]= val[parent];
+			pri[k]= pri[parent];
+			pos[val[k]]= k;
+			k= parent;
+		}
+		val[k]= v;
+		pri[k]= p;
+		pos[v]= k;
+	}
+
+	/** Bubble val[k] down the tree to its right place. <br>
+	 * Precondition: the class invariant is true except that val[k] may belong <br>
+	 * below one or more of its children. */
+	private void bubbleDown(int k) {
+		int v= val[k];
+		int p= pri[k];
+		while (true) {
+			int first= D * k + 1;
+			if (first >= size) break;
+			int last= Math.min(first + D, size);
+			int c= first;
+			for (int j= first + 1; j < last; j++ ) {
+				if (pri[j] < pri[c]) c= j;
+			}
+			if (p <= pri[c]) break;
+			val[k]= val[c];
+			pri[k]= pri[c];
+			pos[val[k]]= k;
+			k= c;
+		}
+		val[k]= v;
+		pri[k]= p;
+		pos[v]= k;
+	}
+
+	/** Return the heap in the form [value0:priority0, value1:priority1, ...], <br>
+	 * in tree order. */
+	@Override
+	public String toString() {
+		StringBuilder sb= new StringBuilder("[");
+		for (int k= 0; k < size; k++ ) {
+			if (k > 0) sb.append(", ");
+			sb.append(val[k]).append(':').append(pri[k]);
+		}
+		return sb.append(']').toString();
+	}
+}
@@ -0,0 +1,95 @@
+package graph;
+
+import java.util.Arrays;
+
+/** An instance is a map from the nodes of a sewer system to ints, kept in an array <br>
+ * indexed by node index (see Node.getIndex()) instead of in a HashMap<Node, Integer>.
+ *
+ * Lookups and updates do no hashing, boxing, or allocation. An instance is sized to <br>
+ * the graph when created from a Sewers; otherwise it grows as nodes with larger <br>
+ * indexes are put in it. */
+public final class IntNodeMap {
+
+	/** For each node n with index i: present[i] = round iff n is a key of this map, <br>
+	 * and then values[i] is its value. Bumping round empties the map in constant time. */
+	private int[] values;
+	private int[] present;
+	private int round= 1;
+
+	/** The number of keys of this map. */
+	private int size;
+
+	/** Constructor: an empty map with room for the nodes of sewers. */
+	public IntNodeMap(Sewers sewers) {
+		this(sewers.numOpenTiles());
+	}
+
+	/** Constructor: an empty map with room for the nodes with indexes 0..capacity-1. */
+	public IntNodeMap(int capacity) {
+		values= new int[capacity];
+		present= new int[capacity];
+	}
+
+	/** Return the number of keys of this map. */
+	public int size() {
+		return size;
+	}
+
+	/** Return true iff this map is empty. */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/** Return true iff n is a key of this map. */
+	public boolean containsKey(Node n) {
+		int i= NodeBitSet.index(n);
+		return i < present.length && present[i] == round;
+	}
+
+	/** Return the value of n. <br>
+	 * Throw an IllegalArgumentException if n is not a key of this map. */
+	public int get(Node n) {
+		if (!containsKey(n)) {
+			throw new IllegalArgumentException("Node " + n.getId() + " is not in the map");
+		}
+		return values[n.getIndex()];
+	}
+
+	/** Return the value of n, or otherwise if n is not a key of this map. */
+	public int getOrDefault(Node n, int otherwise) {
+		return containsKey(n) ? values[n.getIndex()] : otherwise;
+	}
+
+	/** Make v the value of n. */
+	public void put(Node n, int v) {
+		int i= NodeBitSet.index(n);
+		if (i >= present.length) {
+			int cap= Math.max(i + 1, 2 * present.length);
+			values= Arrays.copyOf(values, cap);
+			present= Arrays.copyOf(present, cap);
+		}
+		if (present[i] != round) {
+			present[i]= round;
+			size++ ;
+		}
+		values[i]= v;
+	}
+
+	/** Remove n from this map. Return true iff it was a key. */
+	public boolean remove(Node n) {
+		if (!containsKey(n)) return false;
+		present[n.getIndex()]= 0;
+		size-- ;
+		return true;
+	}
+
+	/** Remove every key from this map. */
+	public void clear() {
+		round++ ;
+		if (round == 0) {
+			Arrays.fill(present, 0);
+			round= 1;
+		}
+		size= 0;
+	}
+}
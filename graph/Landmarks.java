@@ -0,0 +1,222 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/** An instance is a set of landmark nodes of a SewerGraph with the exact distance <br>
+ * from each landmark to every node, used as an A* heuristic (ALT: A*, landmarks, <br>
+ * triangle inequality).
+ *
+ * For a landmark L and nodes v and t, the triangle inequality gives <br>
+ * dist(v, t) >= |dist(L, t) - dist(L, v)|, since the graph is undirected. The <br>
+ * heuristic is the largest such bound over the landmarks (and the Manhattan bound), <br>
+ * which is admissible and consistent. Unlike the Manhattan bound, it accounts for walls <br>
+ * and heavy edges, so on mazes A* settles far fewer nodes. Landmarks on the edge of <br>
+ * the map, far from each other, give the best bounds; they are chosen by farthest-point <br>
+ * selection: each new landmark is the node farthest from those chosen so far.
+ *
+ * Only the landmarks themselves need to be saved (see write() and read()): their <br>
+ * distances are recomputed when read, one Dijkstra search per landmark, in parallel. */
+public final class Landmarks implements AStarSearch.Heuristic {
+
+	/** The number of landmarks Sewers.landmarks() selects. */
+	public static final int DEFAULT_COUNT= 8;
+
+	/** The value of distance(i, v) when v cannot be reached from landmark i. */
+	public static final int UNREACHABLE= Integer.MAX_VALUE;
+
+	/** The suffix of the name of the file holding the landmarks of a map <br>
+	 * (see fileFor()). */
+	public static final String FILE_SUFFIX= ".alt";
+
+	/** The graph, its size, and the Manhattan-distance heuristic for it. */
+	private final SewerGraph graph;
+	private final int n;
+	private final AStarSearch.Heuristic manhattan;
+
+	/** landmarks[i] is the node of landmark i. */
+	private final int[] landmarks;
+
+	/** dist[v*k + i] is the length of a shortest path between landmark i and node v, <br>
+	 * where k is the number of landmarks (UNREACHABLE if there is none). <br>
+	 * The distances of one node are together, since a query reads all of them. */
+	private final int[] dist;
+
+	/** Return at most k landmarks of g, chosen by farthest-point selection, and <br>
+	 * their distances. The first landmark is the node farthest from node 0. <br>
+	 * Fewer than k are chosen if every node is already a landmark. <br>
+	 * Throw an IllegalArgumentException if k < 0. */
+	public static Landmarks select(SewerGraph g, int k) {
+		if (k < 0) throw new IllegalArgumentException("select: k must be >= 0: " + k);
+		int n= g.size();
+		if (n == 0 || k == 0) return new Landmarks(g, new int[0], new int[0]);
+
+		// Each landmark needs the distances of the one before, so they are chosen in turn;
+		// the search that chooses a landmark also gives its row of distances.
+		DijkstraSearch search= new DijkstraSearch(g);
+		int[] nearest= new int[n]; // distance from each node to the nearest landmark
+		Arrays.fill(nearest, UNREACHABLE);
+		List<int[]> rows= new ArrayList<>();
+		int[] chosen= new int[k];
+		int count= 0;
+		int next= farthest(search, 0, null);
+		while (count < k && next >= 0) {
+			int[] row= new int[n];
+			farthest(search, next, row);
+			chosen[count++ ]= next;
+			rows.add(row);
+			next= -1;
+			int far= 0;
+			for (int v= 0; v < n; v++ ) {
+				nearest[v]= Math.min(nearest[v], row[v]);
+				if (nearest[v] != UNREACHABLE && nearest[v] > far) {
+					far= nearest[v];
+					next= v;
+				}
+			}
+		}
+
+		int[] dist= new int[n * count];
+		for (int i= 0; i < count; i++ ) {
+			int[] row= rows.get(i);
+			for (int v= 0; v < n; v++ ) {
+				dist[v * count + i]= row[v];
+			}
+		}
+		return new Landmarks(g, Arrays.copyOf(chosen, count), dist);
+	}
+
+	/** Run search from node src, storing the distance of each node in row if row is <br>
+	 * not null, and return the reachable node farthest from src. */
+	private static int farthest(DijkstraSearch search, int src, int[] row) {
+		search.run(src, -1);
+		int far= src;
+		for (int v= 0; v < search.graph().size(); v++ ) {
+			int d= search.distance(v);
+			if (row != null) row[v]= d;
+			if (d != UNREACHABLE && d > search.distance(far)) far= v;
+		}
+		return far;
+	}
+
+	/** Return the landmarks of g at the given nodes, with their distances. <br>
+	 * The distances are computed in parallel, one Dijkstra search per landmark. <br>
+	 * Duplicates in nodes are ignored. */
+	public static Landmarks of(SewerGraph g, int[] nodes) {
+		int[] chosen= IntStream.of(nodes).distinct().toArray();
+		int n= g.size();
+		int k= chosen.length;
+		int[] dist= new int[n * k];
+
+		// Split the landmarks into one contiguous chunk per worker, each with its own search.
+		int chunks= Math.min(k, ForkJoinPool.getCommonPoolParallelism() + 1);
+		IntStream.range(0, chunks).parallel().forEach((c) -> {
+			DijkstraSearch search= new DijkstraSearch(g);
+			int lo= (int) ((long) k * c / chunks);
+			int hi= (int) ((long) k * (c + 1) / chunks);
+			for (int i= lo; i < hi; i++ ) {
+				search.run(chosen[i], -1);
+				for (int v= 0; v < n; v++ ) {
+					dist[v * k + i]= search.distance(v);
+				}
+			}
+		});
+		return new Landmarks(g, chosen, dist);
+	}
+
+	/** Constructor: landmarks lms of g with distances dst, laid out as in dist. */
+	private Landmarks(SewerGraph g, int[] lms, int[] dst) {
+		graph= g;
+		n= g.size();
+		manhattan= AStarSearch.manhattan(g);
+		landmarks= lms;
+		dist= dst;
+	}
+
+	/** Return the graph of these landmarks. */
+	public SewerGraph graph() {
+		return graph;
+	}
+
+	/** Return the number of landmarks. */
+	public int count() {
+		return landmarks.length;
+	}
+
+	/** Return the node of landmark i. */
+	public int landmark(int i) {
+		return landmarks[i];
+	}
+
+	/** Return the length of a shortest path between landmark i and node v, <br>
+	 * or UNREACHABLE if there is none. */
+	public int distance(int i, int v) {
+		return dist[v * landmarks.length + i];
+	}
+
+	/** Return the largest lower bound on the distance between v and target given by <br>
+	 * the triangle inequality at a landmark, or by the Manhattan distance. */
+	@Override
+	public int estimate(int v, int target) {
+		int k= landmarks.length;
+		int best= manhattan.estimate(v, target);
+		for (int i= v * k, j= target * k, end= i + k; i < end; i++ , j++ ) {
+			int dv= dist[i];
+			int dt= dist[j];
+			if (dv == UNREACHABLE || dt == UNREACHABLE) continue;
+			best= Math.max(best, Math.abs(dt - dv));
+		}
+		return best;
+	}
+
+	/** Return the file holding the landmarks of the map in file mapFile: <br>
+	 * the file in the same directory whose name is mapFile's followed by FILE_SUFFIX. */
+	public static Path fileFor(Path mapFile) {
+		return mapFile.resolveSibling(mapFile.getFileName() + FILE_SUFFIX);
+	}
+
+	/** Write these landmarks to file, in a text format that read() can read back: <br>
+	 * a line "nodes:n,landmarks:k" with the size of the graph and the number of <br>
+	 * landmarks, followed by the id of each landmark, one per line. */
+	public void write(Path file) throws IOException {
+		List<String> lines= new ArrayList<>(landmarks.length + 1);
+		lines.add("nodes:" + n + ",landmarks:" + landmarks.length);
+		for (int v : landmarks) {
+			lines.add(Long.toString(graph.id(v)));
+		}
+		Files.write(file, lines);
+	}
+
+	/** Read the landmarks of g from file, which was written by write(), and compute <br>
+	 * their distances (see of()). <br>
+	 * Throw an IOException if file is not in that format or is not for a graph <br>
+	 * with the size and nodes of g. */
+	public static Landmarks read(Path file, SewerGraph g) throws IOException {
+		List<String> lines= Files.readAllLines(file);
+		int[] nodes;
+		try {
+			String[] header= lines.get(0).split(",");
+			int size= Integer.parseInt(header[0].split(":")[1]);
+			int k= Integer.parseInt(header[1].split(":")[1]);
+			if (size != g.size() || lines.size() != k + 1) {
+				throw new IOException(file + " does not hold landmarks of this graph");
+			}
+			nodes= new int[k];
+			for (int i= 0; i < k; i++ ) {
+				nodes[i]= g.indexOf(Long.parseLong(lines.get(i + 1).trim()));
+				if (nodes[i] < 0) {
+					throw new IOException(file + " names a node that is not in this graph");
+				}
+			}
+		} catch (RuntimeException e) {
+			throw new IOException(file + " is not a landmark file", e);
+		}
+		return of(g, nodes);
+	}
+}
@@ -1,24 +1,49 @@
 package graph;
 
-import java.util.Collections;
-import java.util.LinkedHashSet;
-import java.util.Objects;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
+import graph.Sewers.Direction;
+
 /** An instance is a node of the graph */
 public class Node {
 
 	/** The unique numerical identifier of this Node */
 	private final long id;
 
-	/** The edges leaving from this Node */
-	private final Set<Edge> edges;
+	/** The index of this Node in its sewer system: the open nodes of a Sewers are <br>
+	 * numbered 0..numOpenTiles()-1 in row-major order of their tiles. <br>
+	 * -1 for walls and for nodes not (yet) in a Sewers. */
+	private int index= -1;
+
+	/** The edges leaving from this Node: edges[d.ordinal()] is the edge to the <br>
+	 * neighbor in direction d, or null if there is none. Edges always join tiles <br>
+	 * that are next to each other on the grid, so four slots are enough. */
+	private final Edge[] edges= new Edge[4];
+
+	/** The number of edges leaving from this Node. */
+	private int degree;
 
-	/** The neighbors of this Node */
-	private final Set<Node> neighbors;
+	/** Unmodifiable views of the edges and of the neighbors of this Node. */
+	private final Set<Edge> unmodifiableEdges= new Slots<Edge>() {
+		@Override
+		Edge get(Edge e) {
+			return e;
+		}
+	};
+	private final Set<Node> unmodifiableNeighbors= new Slots<Node>() {
+		@Override
+		Node get(Edge e) {
+			return e.getOther(Node.this);
+		}
 
-	private final Set<Edge> unmodifiableEdges;
-	private final Set<Node> unmodifiableNeighbors;
+		@Override
+		public boolean contains(Object ob) {
+			return ob instanceof Node && edgeTo((Node) ob) != null;
+		}
+	};
 
 	/** Extra state that belongs to this node */
 	private final Tile tile;
@@ -31,19 +56,19 @@ public class Node {
 	/** Constructor: a node for tile t with id givenId. */
 	/* package */ Node(long givenId, Tile t) {
 		id= givenId;
-		edges= new LinkedHashSet<>();
-		neighbors= new LinkedHashSet<>();
-
-		unmodifiableEdges= Collections.unmodifiableSet(edges);
-		unmodifiableNeighbors= Collections.unmodifiableSet(neighbors);
-
 		tile= t;
 	}
 
-	/** Add edge e to this node. */
+	/** Add edge e to this node, replacing any edge in the same direction. <br>
+	 * Throw an IllegalArgumentException if e does not join this node to a node <br>
+	 * whose tile is next to this one on the grid. */
 	/* package */ void addEdge(Edge e) {
-		edges.add(e);
-		neighbors.add(e.getOther(this));
+		Direction d= Direction.between(tile, e.getOther(this).tile);
+		if (d == null) {
+			throw new IllegalArgumentException("addEdge: Edge must join adjacent tiles");
+		}
+		if (edges[d.ordinal()] == null) degree++ ;
+		edges[d.ordinal()]= e;
 	}
 
 	/** Return the unique Identifier of this Node. */
@@ -51,21 +76,50 @@ public class Node {
 		return id;
 	}
 
+	/** Return the index of this Node in its sewer system, in 0..numOpenTiles()-1, <br>
+	 * or -1 if it has none (e.g. it is a wall). Per-node data can be kept in arrays <br>
+	 * indexed by it, e.g. in an IntNodeMap, instead of in a HashMap. */
+	public int getIndex() {
+		return index;
+	}
+
+	/** Set the index of this Node to i. */
+	/* package */ void setIndex(int i) {
+		index= i;
+	}
+
 	/** Return the Edge of this Node that connects to Node q. <br>
 	 * Throw an IllegalArgumentException if edge doesn't exist */
 	public Edge getEdge(Node q) {
-		for (Edge e : edges) {
-			if (e.getDest().equals(q)) { return e; }
+		Edge e= edgeTo(q);
+		if (e == null) {
+			throw new IllegalArgumentException("getEdge: Node must be a neighbor of this Node");
 		}
-		throw new IllegalArgumentException("getEdge: Node must be a neighbor of this Node");
+		return e;
+	}
+
+	/** Return the Edge of this Node in direction d, or null if there is none. */
+	public Edge getEdge(Direction d) {
+		return edges[d.ordinal()];
 	}
 
-	/** Return an unmodifiable view of the Edges leaving this Node. */
+	/** Return the Edge of this Node that connects to Node q, or null if none does. <br>
+	 * The direction of q's tile picks the only edge that could. */
+	private Edge edgeTo(Node q) {
+		Direction d= Direction.between(tile, q.tile);
+		if (d == null) return null;
+		Edge e= edges[d.ordinal()];
+		return e != null && e.getOther(this).equals(q) ? e : null;
+	}
+
+	/** Return an unmodifiable view of the Edges leaving this Node, <br>
+	 * in the order of Direction.values(). */
 	public Set<Edge> getExits() {
 		return unmodifiableEdges;
 	}
 
-	/** Return an unmodifiable view of the Nodes neighboring this Node. */
+	/** Return an unmodifiable view of the Nodes neighboring this Node, <br>
+	 * in the order of Direction.values(). */
 	public Set<Node> getNeighbors() {
 		return unmodifiableNeighbors;
 	}
@@ -85,6 +139,47 @@ public class Node {
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(id);
+		return Long.hashCode(id);
+	}
+
+	/** An instance is an unmodifiable view of something about each edge of this Node, <br>
+	 * in the order of the edge slots. */
+	private abstract class Slots<T> extends AbstractSet<T> {
+		/** Return the element of this view for edge e. */
+		abstract T get(Edge e);
+
+		@Override
+		public int size() {
+			return degree;
+		}
+
+		@Override
+		public Iterator<T> iterator() {
+			return new Iterator<T>() {
+				/** The slot of the next element (edges.length if there is none). */
+				private int next= skip(0);
+
+				/** Return the first nonempty slot at or after slot i, or edges.length. */
+				private int skip(int i) {
+					while (i < edges.length && edges[i] == null) {
+						i++ ;
+					}
+					return i;
+				}
+
+				@Override
+				public boolean hasNext() {
+					return next < edges.length;
+				}
+
+				@Override
+				public T next() {
+					if (next >= edges.length) throw new NoSuchElementException();
+					T t= get(edges[next]);
+					next= skip(next + 1);
+					return t;
+				}
+			};
+		}
 	}
 }
@@ -0,0 +1,94 @@
+package graph;
+
+import java.util.Arrays;
+
+/** An instance is a set of the nodes of a sewer system, kept as a bit per node <br>
+ * index (see Node.getIndex()) instead of in a HashSet.
+ *
+ * Membership tests and updates are a shift and a mask, with no hashing, boxing, <br>
+ * or allocation. An instance is sized to the graph when created from a Sewers; <br>
+ * otherwise it grows as nodes with larger indexes are added. */
+public final class NodeBitSet {
+
+	/** Bit i % 64 of words[i / 64] is 1 iff the node with index i is in the set. */
+	private long[] words;
+
+	/** The number of nodes in the set. */
+	private int size;
+
+	/** Constructor: an empty set with room for the nodes of sewers. */
+	public NodeBitSet(Sewers sewers) {
+		this(sewers.numOpenTiles());
+	}
+
+	/** Constructor: an empty set with room for the nodes with indexes 0..capacity-1. */
+	public NodeBitSet(int capacity) {
+		words= new long[(capacity + 63) >>> 6];
+	}
+
+	/** Return the number of nodes in this set. */
+	public int size() {
+		return size;
+	}
+
+	/** Return true iff this set is empty. */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/** Return true iff n is in this set. */
+	public boolean contains(Node n) {
+		int i= index(n);
+		int w= i >>> 6;
+		return w < words.length && (words[w] & 1L << i) != 0;
+	}
+
+	/** Add n to this set. Return true iff it was not already in it. */
+	public boolean add(Node n) {
+		int i= index(n);
+		int w= i >>> 6;
+		if (w >= words.length) words= Arrays.copyOf(words, Math.max(w + 1, 2 * words.length));
+		if ((words[w] & 1L << i) != 0) return false;
+		words[w]|= 1L << i;
+		size++ ;
+		return true;
+	}
+
+	/** Remove n from this set. Return true iff it was in it. */
+	public boolean remove(Node n) {
+		if (!contains(n)) return false;
+		int i= n.getIndex();
+		words[i >>> 6]&= ~(1L << i);
+		size-- ;
+		return true;
+	}
+
+	/** Return the smallest index >= from of a node in this set, or -1 if there is none. <br>
+	 * The nodes of the set can be enumerated in index order with <br>
+	 * for (int i= s.nextIndex(0); i >= 0; i= s.nextIndex(i + 1)) ... */
+	public int nextIndex(int from) {
+		int w= from >>> 6;
+		if (w >= words.length) return -1;
+		long bits= words[w] & -1L << from;
+		while (bits == 0) {
+			w++ ;
+			if (w == words.length) return -1;
+			bits= words[w];
+		}
+		return (w << 6) + Long.numberOfTrailingZeros(bits);
+	}
+
+	/** Remove every node from this set. */
+	public void clear() {
+		Arrays.fill(words, 0);
+		size= 0;
+	}
+
+	/** Return n's index. <br>
+	 * Throw an IllegalArgumentException if n has none (e.g. it is a wall). */
+	/* package */ static int index(Node n) {
+		int i= n.getIndex();
+		if (i < 0) throw new IllegalArgumentException("Node " + n.getId() + " has no index");
+		return i;
+	}
+}
@@ -0,0 +1,69 @@
+package graph;
+
+import java.util.Arrays;
+
+/** An instance is a map from the nodes of a sewer system to values of type V, kept <br>
+ * in an array indexed by node index (see Node.getIndex()) instead of in a HashMap. <br>
+ * null is not a value: get returns null exactly when a node is not a key.
+ *
+ * An instance is sized to the graph when created from a Sewers; otherwise it grows <br>
+ * as nodes with larger indexes are put in it. */
+public final class NodeMap<V> {
+
+	/** values[i] is the value of the node with index i, or null if it is not a key. */
+	private Object[] values;
+
+	/** The number of keys of this map. */
+	private int size;
+
+	/** Constructor: an empty map with room for the nodes of sewers. */
+	public NodeMap(Sewers sewers) {
+		this(sewers.numOpenTiles());
+	}
+
+	/** Constructor: an empty map with room for the nodes with indexes 0..capacity-1. */
+	public NodeMap(int capacity) {
+		values= new Object[capacity];
+	}
+
+	/** Return the number of keys of this map. */
+	public int size() {
+		return size;
+	}
+
+	/** Return true iff n is a key of this map. */
+	public boolean containsKey(Node n) {
+		return get(n) != null;
+	}
+
+	/** Return the value of n, or null if n is not a key of this map. */
+	@SuppressWarnings("unchecked")
+	public V get(Node n) {
+		int i= NodeBitSet.index(n);
+		return i < values.length ? (V) values[i] : null;
+	}
+
+	/** Make v the value of n. <br>
+	 * Throw an IllegalArgumentException if v is null. */
+	public void put(Node n, V v) {
+		if (v == null) throw new IllegalArgumentException("NodeMap values cannot be null");
+		int i= NodeBitSet.index(n);
+		if (i >= values.length) values= Arrays.copyOf(values, Math.max(i + 1, 2 * values.length));
+		if (values[i] == null) size++ ;
+		values[i]= v;
+	}
+
+	/** Remove n from this map. Return true iff it was a key. */
+	public boolean remove(Node n) {
+		if (!containsKey(n)) return false;
+		values[n.getIndex()]= null;
+		size-- ;
+		return true;
+	}
+
+	/** Remove every key from this map. */
+	public void clear() {
+		Arrays.fill(values, null);
+		size= 0;
+	}
+}
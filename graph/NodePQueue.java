@@ -0,0 +1,104 @@
+package graph;
+
+import java.util.Arrays;
+
+/** An instance is a priority queue of the nodes of a sewer system. <br>
+ * It meets the PQueue contract, but is backed by an IntMinHeap on the nodes' <br>
+ * indexes (see Node.getIndex()), so it does no hashing and allocates nothing per <br>
+ * operation. Since all path lengths are ints, every priority must be a whole number.
+ *
+ * An instance is sized to the graph when created from a Sewers; otherwise it grows <br>
+ * as nodes with larger indexes are added to it, like NodeMap. */
+public final class NodePQueue implements PQueue<Node> {
+
+	/** nodes[i] is the node with index i if it is in this queue. */
+	private Node[] nodes;
+
+	/** The heap of the indexes of the nodes in this queue. */
+	private IntMinHeap heap;
+
+	/** Constructor: an empty queue with room for the nodes of sewers. */
+	public NodePQueue(Sewers sewers) {
+		this(sewers.numOpenTiles());
+	}
+
+	/** Constructor: an empty queue with room for the nodes with indexes 0..capacity-1. */
+	public NodePQueue(int capacity) {
+		nodes= new Node[capacity];
+		heap= new IntMinHeap(capacity);
+	}
+
+	/** Return the queue in the form [id0:priority0, id1:priority1, ...], <br>
+	 * where the ids are those of the nodes, in heap order. */
+	@Override
+	public String toString() {
+		StringBuilder sb= new StringBuilder("[");
+		for (int k= 0; k < heap.size(); k++ ) {
+			if (k > 0) sb.append(", ");
+			sb.append(nodes[heap.valueAt(k)].getId()).append(':').append(heap.priorityAt(k));
+		}
+		return sb.append(']').toString();
+	}
+
+	@Override
+	public int size() {
+		return heap.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return heap.isEmpty();
+	}
+
+	@Override
+	public void add(Node e, double priority) throws IllegalArgumentException {
+		int i= NodeBitSet.index(e);
+		if (i >= nodes.length) grow(i + 1);
+		heap.add(i, toInt(priority));
+		nodes[i]= e;
+	}
+
+	@Override
+	public Node peek() {
+		return nodes[heap.peek()];
+	}
+
+	@Override
+	public Node poll() {
+		return nodes[heap.poll()];
+	}
+
+	/** Change the priority of e to p. <br>
+	 * Throw an IllegalArgumentException if e is not in the queue. */
+	@Override
+	public void changePriority(Node e, double p) {
+		int i= NodeBitSet.index(e);
+		if (i >= nodes.length) throw new IllegalArgumentException("Node " + e.getId() + " is not in the queue");
+		heap.changePriority(i, toInt(p));
+	}
+
+	/** Remove every node from the queue. */
+	public void clear() {
+		heap.clear();
+	}
+
+	/** Make room for the nodes with indexes 0..min-1 (at least). <br>
+	 * The queue's entries are copied in heap order, so none of them moves. */
+	private void grow(int min) {
+		int cap= Math.max(min, 2 * nodes.length);
+		IntMinHeap bigger= new IntMinHeap(cap);
+		for (int k= 0; k < heap.size(); k++ ) {
+			bigger.add(heap.valueAt(k), heap.priorityAt(k));
+		}
+		heap= bigger;
+		nodes= Arrays.copyOf(nodes, cap);
+	}
+
+	/** Return p as an int. <br>
+	 * Throw an IllegalArgumentException if p is not a whole number in the range of int. */
+	private static int toInt(double p) {
+		int result= (int) p;
+		if (result != p) throw new IllegalArgumentException("priority must be an int: " + p);
+		return result;
+	}
+}
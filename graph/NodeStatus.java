@@ -1,7 +1,5 @@
 package graph;
 
-import java.util.Objects;
-
 public final class NodeStatus implements Comparable<NodeStatus> {
 	private final long id;
 	private final int distance;
@@ -41,6 +39,6 @@ public final class NodeStatus implements Comparable<NodeStatus> {
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(id);
+		return Long.hashCode(id);
 	}
 }
@@ -0,0 +1,22 @@
+package graph;
+
+/** An implementation answers point-to-point shortest-path queries over a SewerGraph. <br>
+ * Nodes are given by their indexes in the graph. An implementation may keep state <br>
+ * between queries and so need not be thread-safe. */
+public interface PathSearch {
+
+	/** Return the graph this search runs over. */
+	SewerGraph graph();
+
+	/** Return the length of a shortest path from node src to node dst, <br>
+	 * or -1 if there is none. */
+	int distance(int src, int dst);
+
+	/** Return the indexes of the nodes of a shortest path from node src to node dst, <br>
+	 * src first ---or an empty array if there is none. */
+	int[] path(int src, int dst);
+
+	/** Return the number of nodes the last query settled (expanded). <br>
+	 * This measures how much work the query did. */
+	int settledCount();
+}
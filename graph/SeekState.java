@@ -9,6 +9,14 @@ import java.util.Collection;
  * An instance provides all the information necessary<br>
  * to search through the sewer system and find the ring. */
 public interface SeekState {
+
+	/** The outcomes of tryMoveTo(long). */
+	enum MoveStatus {
+		/** McDiver moved to the node. */
+		MOVED,
+		/** McDiver did not move: the node is not adjacent to his current location. */
+		NOT_ADJACENT;
+	}
 	/** Return the unique identifier associated with McDiver's current location. */
 	long currentLocation();
 
@@ -20,9 +28,20 @@ public interface SeekState {
 	 * (NB: This is NOT the distance in the graph, it is only the number<br>
 	 * of rows and columns away from the ring.)<br>
 	 * <br>
-	 * It is possible to move directly to any node identifier in this collection. */
+	 * It is possible to move directly to any node identifier in this collection. <br>
+	 * The collection cannot be modified, and the same one may be returned every <br>
+	 * time McDiver stands on the same node. */
 	Collection<NodeStatus> neighbors();
 
+	/** Store in ids[0..k-1] the identifiers of the k direct neighbors of McDiver's <br>
+	 * current location and in distances[0..k-1] their distances to the ring along <br>
+	 * the grid (as in neighbors()), and return k. They are sorted as NodeStatus <br>
+	 * objects are: by increasing distance to the ring, then by increasing identifier. <br>
+	 * Nothing is allocated, so this is the way to look around in a tight loop. <br>
+	 * A node has at most four neighbors, so arrays of size 4 are always big enough; <br>
+	 * throw an IllegalArgumentException if ids or distances is too small. */
+	int neighbors(long[] ids, int[] distances);
+
 	/** Return McDiver's current distance along the grid (NOT THE GRAPH) <br>
 	 * from the ring. */
 	int distanceToRing();
@@ -31,4 +50,14 @@ public interface SeekState {
 	 * Throw an IllegalArgumentException if the node with id id is <br>
 	 * not adjacent to McDiver's current location. */
 	void moveTo(long id);
+
+	/** Return true iff the node given by id is adjacent to McDiver's current location, <br>
+	 * i.e. moveTo(id) would succeed. This takes constant time. */
+	boolean isAdjacent(long id);
+
+	/** Change McDiver's current location to the node given by id, if it is adjacent <br>
+	 * to McDiver's current location, and return MOVED; otherwise, do not move and <br>
+	 * return NOT_ADJACENT. <br>
+	 * This is moveTo(long) without an exception, for when a failed move is expected. */
+	MoveStatus tryMoveTo(long id);
 }
@@ -0,0 +1,280 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/** An instance is an immutable, compact snapshot of the graph of a sewer system <br>
+ * in compressed-sparse-row (CSR) form.
+ *
+ * Each open node is given a dense index in 0..size()-1, in row-major order of its tile; <br>
+ * for a snapshot of a whole sewer system this is the node's own index, Node.getIndex(). <br>
+ * The edges leaving node v are the entries firstEdge(v)..endEdge(v)-1 of the parallel <br>
+ * arrays of targets and weights, so a search can walk the graph using only int <br>
+ * arithmetic, without touching Node or Edge objects. Weights are stored as bytes, <br>
+ * since no edge is longer than Sewers.MAX_EDGE_WEIGHT.
+ *
+ * Node objects are kept only so that results can be translated back (see node(int)). */
+public final class SewerGraph {
+
+	/** Number of rows and columns of the grid the nodes lie on. */
+	private final int rows;
+	private final int cols;
+
+	/** offsets[v]..offsets[v+1]-1 are the edge slots of node v; offsets has size()+1 entries. */
+	private final int[] offsets;
+	/** targets[e] is the index of the node at the other end of edge slot e. */
+	private final int[] targets;
+	/** weights[e] is the length of edge slot e. */
+	private final byte[] weights;
+
+	/** For node index v: its id, its tile's row and column, and its coins when the <br>
+	 * snapshot was built. */
+	private final long[] ids;
+	private final int[] rowOf;
+	private final int[] colOf;
+	private final int[] coins;
+
+	/** cellIndex[r * cols + c] is the index of the node at (r, c), or -1 if (r, c) is a wall. */
+	private final int[] cellIndex;
+
+	/** If the id of some node is not its grid cell (r * cols + c), then the ids in <br>
+	 * increasing order, and idIndex[i] is the index of the node with id sortedIds[i]. <br>
+	 * Otherwise both are null, since the cell of an id gives its node. */
+	private final long[] sortedIds;
+	private final int[] idIndex;
+
+	/** nodes[v] is the Node with index v. */
+	private final Node[] nodes;
+
+	/** The smallest and largest edge weights in the graph (both 1 if there are no edges). */
+	private final int minWeight;
+	private final int maxWeight;
+
+	/** Return a snapshot of the graph of sewers. */
+	public static SewerGraph of(Sewers sewers) {
+		return new SewerGraph(sewers.graph(), sewers.rowCount(), sewers.columnCount());
+	}
+
+	/** Return a snapshot of the graph formed by nodes, e.g. ScramState.allNodes(). <br>
+	 * The grid is taken to be just large enough to hold every node's tile. <br>
+	 * Precondition: every neighbor of a node in nodes is also in nodes. */
+	public static SewerGraph of(Collection<Node> nodes) {
+		int r= 0;
+		int c= 0;
+		for (Node n : nodes) {
+			r= Math.max(r, n.getTile().row() + 1);
+			c= Math.max(c, n.getTile().column() + 1);
+		}
+		return new SewerGraph(nodes, r, c);
+	}
+
+	/** Constructor: a snapshot of the nodes in graph, which lie on a grid of size (rws, cls). */
+	private SewerGraph(Collection<Node> graph, int rws, int cls) {
+		rows= rws;
+		cols= cls;
+
+		List<Node> sorted= new ArrayList<>(graph);
+		sorted.sort((a, b) -> Integer.compare(cell(a), cell(b)));
+		int n= sorted.size();
+
+		nodes= sorted.toArray(new Node[n]);
+		ids= new long[n];
+		rowOf= new int[n];
+		colOf= new int[n];
+		coins= new int[n];
+		cellIndex= new int[rows * cols];
+		Arrays.fill(cellIndex, -1);
+
+		int m= 0;
+		for (int v= 0; v < n; v++ ) {
+			Tile t= nodes[v].getTile();
+			ids[v]= nodes[v].getId();
+			rowOf[v]= t.row();
+			colOf[v]= t.column();
+			coins[v]= t.coins();
+			cellIndex[cell(nodes[v])]= v;
+			m+= nodes[v].getExits().size();
+		}
+
+		offsets= new int[n + 1];
+		targets= new int[m];
+		weights= new byte[m];
+		int e= 0;
+		int minW= Integer.MAX_VALUE;
+		int maxW= 1;
+		for (int v= 0; v < n; v++ ) {
+			offsets[v]= e;
+			for (Edge edge : nodes[v].getExits()) {
+				targets[e]= cellIndex[cell(edge.getOther(nodes[v]))];
+				weights[e]= (byte) edge.length;
+				minW= Math.min(minW, edge.length);
+				maxW= Math.max(maxW, edge.length);
+				e++ ;
+			}
+		}
+		offsets[n]= e;
+		minWeight= m == 0 ? 1 : minW;
+		maxWeight= maxW;
+
+		boolean idsAreCells= true;
+		for (int v= 0; v < n && idsAreCells; v++ ) {
+			idsAreCells= ids[v] == cell(nodes[v]);
+		}
+		if (idsAreCells) {
+			sortedIds= null;
+			idIndex= null;
+		} else {
+			Integer[] order= new Integer[n];
+			for (int v= 0; v < n; v++ ) {
+				order[v]= v;
+			}
+			Arrays.sort(order, (a, b) -> Long.compare(ids[a], ids[b]));
+			sortedIds= new long[n];
+			idIndex= new int[n];
+			for (int i= 0; i < n; i++ ) {
+				idIndex[i]= order[i];
+				sortedIds[i]= ids[order[i]];
+			}
+		}
+	}
+
+	/** Return the row-major grid cell of node n. */
+	private int cell(Node n) {
+		return n.getTile().row() * cols + n.getTile().column();
+	}
+
+	/** Return the number of nodes in the graph. */
+	public int size() {
+		return nodes.length;
+	}
+
+	/** Return the number of directed edge slots (twice the number of undirected edges). */
+	public int edgeCount() {
+		return targets.length;
+	}
+
+	/** Return the number of rows in the grid. */
+	public int rowCount() {
+		return rows;
+	}
+
+	/** Return the number of columns in the grid. */
+	public int columnCount() {
+		return cols;
+	}
+
+	/** Return the smallest edge weight in the graph. */
+	public int minWeight() {
+		return minWeight;
+	}
+
+	/** Return the largest edge weight in the graph. */
+	public int maxWeight() {
+		return maxWeight;
+	}
+
+	/** Return the index of node n. <br>
+	 * Throw an IllegalArgumentException if n is not in this graph. */
+	public int index(Node n) {
+		int i= n.getIndex();
+		if (i >= 0 && i < nodes.length && nodes[i] == n) return i;
+		Tile t= n.getTile();
+		int v= indexAt(t.row(), t.column());
+		if (v < 0 || nodes[v] != n && ids[v] != n.getId()) {
+			throw new IllegalArgumentException("index: Node is not in this graph");
+		}
+		return v;
+	}
+
+	/** Return the index of the node at (r, c), or -1 if there is none. */
+	public int indexAt(int r, int c) {
+		if (r < 0 || r >= rows || c < 0 || c >= cols) return -1;
+		return cellIndex[r * cols + c];
+	}
+
+	/** Return the index of the node with id id, or -1 if there is none. <br>
+	 * Ids are normally grid cells, so this takes constant time; otherwise it is a <br>
+	 * binary search. */
+	public int indexOf(long id) {
+		if (sortedIds == null) {
+			if (id < 0 || id >= cellIndex.length) return -1;
+			return cellIndex[(int) id];
+		}
+		int i= Arrays.binarySearch(sortedIds, id);
+		return i < 0 ? -1 : idIndex[i];
+	}
+
+	/** Return the Node with index v. */
+	public Node node(int v) {
+		return nodes[v];
+	}
+
+	/** Return the id of the node with index v. */
+	public long id(int v) {
+		return ids[v];
+	}
+
+	/** Return the row of the node with index v. */
+	public int row(int v) {
+		return rowOf[v];
+	}
+
+	/** Return the column of the node with index v. */
+	public int column(int v) {
+		return colOf[v];
+	}
+
+	/** Return the coins on node v when this snapshot was built. */
+	public int coins(int v) {
+		return coins[v];
+	}
+
+	/** Return the number of edges leaving node v. */
+	public int degree(int v) {
+		return offsets[v + 1] - offsets[v];
+	}
+
+	/** Return the first edge slot of node v. */
+	public int firstEdge(int v) {
+		return offsets[v];
+	}
+
+	/** Return one past the last edge slot of node v. */
+	public int endEdge(int v) {
+		return offsets[v + 1];
+	}
+
+	/** Return the index of the node at the other end of edge slot e. */
+	public int target(int e) {
+		return targets[e];
+	}
+
+	/** Return the length of edge slot e. */
+	public int weight(int e) {
+		return weights[e];
+	}
+
+	/** Return the length of the edge from u to v, or -1 if they are not adjacent. */
+	public int length(int u, int v) {
+		for (int e= offsets[u]; e < offsets[u + 1]; e++ ) {
+			if (targets[e] == v) return weights[e];
+		}
+		return -1;
+	}
+
+	/** Return the Manhattan distance on the grid between nodes u and v. */
+	public int manhattan(int u, int v) {
+		return Math.abs(rowOf[u] - rowOf[v]) + Math.abs(colOf[u] - colOf[v]);
+	}
+
+	/** Return the nodes with indexes path[0..], in order. */
+	public List<Node> toNodes(int[] path) {
+		List<Node> result= new ArrayList<>(path.length);
+		for (int v : path) {
+			result.add(nodes[v]);
+		}
+		return result;
+	}
+}
@@ -1,19 +1,24 @@
 package graph;
 
-import java.util.ArrayDeque;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Queue;
 import java.util.Random;
 import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /** An instance is a Sewers through which a sewer diver can move.<br>
  * It's a grid of Tile objects with a weighted graph of all non-floor tiles.
@@ -27,6 +32,14 @@ public class Sewers {
 	public static final int MAX_COIN_VALUE= 1000;
 	public static final int TASTY_VALUE= 5000;
 
+	/** The first four bytes of a file in the binary format of writeBinary(): "SWR1". */
+	private static final int BINARY_MAGIC= 0x53575231;
+	/** The sizes in bytes of the header, of a node record and of an edge record <br>
+	 * of the binary format. */
+	private static final int HEADER_BYTES= 28;
+	private static final int NODE_BYTES= 24;
+	private static final int EDGE_BYTES= 8;
+
 	/** An enum representing a grid direction. */
 	public enum Direction {
 		NORTH(-1, 0), EAST(0, 1), SOUTH(1, 0), WEST(0, -1);
@@ -42,6 +55,47 @@ public class Sewers {
 		public Point direction() {
 			return dir;
 		}
+
+		/** Return the change in row of a move in this direction. */
+		public int rowOffset() {
+			return dir.row;
+		}
+
+		/** Return the change in column of a move in this direction. */
+		public int columnOffset() {
+			return dir.col;
+		}
+
+		/** Return the direction of a move from tile a to tile b, <br>
+		 * or null if b is not next to a on the grid. */
+		public static Direction between(Tile a, Tile b) {
+			int dr= b.row() - a.row();
+			int dc= b.column() - a.column();
+			if (dc == 0) {
+				if (dr == -1) return NORTH;
+				if (dr == 1) return SOUTH;
+			} else if (dr == 0) {
+				if (dc == 1) return EAST;
+				if (dc == -1) return WEST;
+			}
+			return null;
+		}
+	}
+
+	/** The ways of generating a sewer system that meets the requirements of its phase: <br>
+	 * a seek map's ring must be far enough from the entrance, and a scram map must <br>
+	 * have an open floor tile where the ring was. */
+	public enum Generation {
+		/** Generate whole sewer systems until one happens to meet the requirements. <br>
+		 * The sewer systems for a given Random are those of earlier versions, so games <br>
+		 * can be replayed from their seeds. This is the default. */
+		LEGACY,
+		/** Generate one sewer system and make it meet the requirements: the ring is <br>
+		 * chosen among the nodes far enough from the entrance (found by one breadth-first <br>
+		 * search), and if the required floor tile was left closed, it is carved open <br>
+		 * together with a shortest corridor to the nearest open tile. Only if no node at <br>
+		 * all is far enough from the entrance, which is rare, is the maze dug again. */
+		SINGLE_PASS;
 	}
 
 	/** An instance represents a point on the grid. */
@@ -83,11 +137,40 @@ public class Sewers {
 
 	private final Node[][] tiles;
 
+	/** byIndex[i] is the open node with index i (see Node.getIndex()). */
+	private final Node[] byIndex;
+
+	/** Per-cell lookup tables, built by buildTables() when first needed. For the cell <br>
+	 * k = r * cols + c of tile (r, c) and a direction d, with slot 4k + d.ordinal(): <br>
+	 * ringDist[k] is the grid (Manhattan) distance from (r, c) to the ring, <br>
+	 * neighborIds[slot] is the id of the node joined to the node at (r, c) by an edge <br>
+	 * in direction d (-1 if there is no such edge), and edgeWeights[slot] is the <br>
+	 * length of that edge (0 if there is none). */
+	private int[] ringDist;
+	private long[] neighborIds;
+	private byte[] edgeWeights;
+
+	/** The compact snapshot of graph and the search run over it, created when first needed. */
+	private SewerGraph compact;
+	private BidirectionalSearch search;
+
+	/** The landmarks of compact for A* searches, selected or read when first needed. */
+	private Landmarks landmarks;
+
 	/** Return a new random sewer system with r rows, c columns, and no coins,<br>
 	 * all edges have weight 1, and there is a ring a reasonable distance from the exit.<br>
 	 * rand is the source of randomness for the sewer-system generation. */
 	public static Sewers digExploreSewer(int r, int c, Random rand) {
+		return digExploreSewer(r, c, rand, Generation.LEGACY);
+	}
+
+	/** Return a new random sewer system as digExploreSewer(r, c, rand) does, <br>
+	 * generated in the way given by mode. */
+	public static Sewers digExploreSewer(int r, int c, Random rand, Generation mode) {
 		int minRingDist= minRingDistance(r, c);
+		if (mode == Generation.SINGLE_PASS) {
+			return new Sewers(r, c, rand, () -> 1, () -> 0, Tile.TileType.RING, minRingDist, null);
+		}
 
 		Sewers sewers= new Sewers(r, c, rand, () -> 1, () -> 0, Tile.TileType.RING);
 		while (sewers.minPathLengthToRing(sewers.entrance()) < minRingDist) {
@@ -108,8 +191,24 @@ public class Sewers {
 	 * rand is the source of randomness to use for the sewer-system generation. */
 	public static Sewers digGetOutSewer(int r, int c, int currentRow, int currentCol,
 		Random rand) {
+		return digGetOutSewer(r, c, currentRow, currentCol, rand, Generation.LEGACY);
+	}
+
+	/** Return a new random sewer system as digGetOutSewer(r, c, currentRow, currentCol, <br>
+	 * rand) does, generated in the way given by mode. <br>
+	 * Throw an IllegalArgumentException if (currentRow, currentCol) is on the border <br>
+	 * of the grid, where no floor tile can be. */
+	public static Sewers digGetOutSewer(int r, int c, int currentRow, int currentCol,
+		Random rand, Generation mode) {
 		Supplier<Integer> edgeWeightGen= () -> rand.nextInt(MAX_EDGE_WEIGHT) + 1;
 		Supplier<Integer> coinGen= () -> Sewers.randomCoinValue(rand);
+		if (mode == Generation.SINGLE_PASS) {
+			if (currentRow <= 0 || currentRow >= r - 1 || currentCol <= 0 || currentCol >= c - 1) {
+				throw new IllegalArgumentException("digGetOutSewer: the tile must not be on the border");
+			}
+			return new Sewers(r, c, rand, edgeWeightGen, coinGen, Tile.TileType.ENTRANCE, -1,
+				new Point(currentRow, currentCol));
+		}
 		Sewers potentialCavern= new Sewers(r, c, rand, edgeWeightGen, coinGen,
 			Tile.TileType.ENTRANCE);
 		while (potentialCavern.tileAt(currentRow, currentCol).type() != Tile.TileType.FLOOR) {
@@ -140,10 +239,20 @@ public class Sewers {
 		Supplier<Integer> edgeWeightGenerator,
 		Supplier<Integer> coinGenerator,
 		Tile.TileType targetType) {
+		this(rws, cls, rand, edgeWeightGenerator, coinGenerator, targetType, -1, null);
+	}
+
+	/** Constructor: a new sewer system as above, except that if minTargetDist >= 0, the <br>
+	 * target is at least minTargetDist steps from the entrance, and if required is not <br>
+	 * null, the tile at point required is open. See generateGraph(). */
+	private Sewers(int rws, int cls, Random rand,
+		Supplier<Integer> edgeWeightGenerator,
+		Supplier<Integer> coinGenerator,
+		Tile.TileType targetType, int minTargetDist, Point required) {
 		rows= rws;
 		cols= cls;
 
-		graph= generateGraph(rand, targetType, coinGenerator);
+		graph= generateGraph(rand, targetType, coinGenerator, minTargetDist, required);
 		entrance= graph.stream().filter((n) -> n.getTile().type() == Tile.TileType.ENTRANCE)
 			.findAny().get();
 		ring= graph.stream().filter((n) -> n.getTile().type() == targetType).findAny().get();
@@ -162,6 +271,7 @@ public class Sewers {
 			}
 		}
 		createEdges(tiles, edgeWeightGenerator);
+		byIndex= indexNodes();
 	}
 
 	/** Constructor; a graph constructed from givenGraph and tiles givenTiles, <br>
@@ -180,6 +290,25 @@ public class Sewers {
 		entrance= graph.stream().filter((n) -> n.getTile().type() == Tile.TileType.ENTRANCE)
 			.findAny().get();
 		ring= trgt;
+		byIndex= indexNodes();
+	}
+
+	/** Number the open nodes 0, 1, 2, ... in row-major order of their tiles, which is <br>
+	 * also the order of their indexes in SewerGraph.of(this), and return them in that <br>
+	 * order. */
+	private Node[] indexNodes() {
+		Node[] nodes= new Node[graph.size()];
+		int k= 0;
+		for (Node[] row : tiles) {
+			for (Node node : row) {
+				if (node.getTile().type() != Tile.TileType.WALL) {
+					node.setIndex(k);
+					nodes[k]= node;
+					k++ ;
+				}
+			}
+		}
+		return nodes;
 	}
 
 	/** Given tiles without edges and a supplier to return edge weights, add <br>
@@ -193,94 +322,213 @@ public class Sewers {
 					continue;
 				}
 
-				final Point p= new Point(i, j);
-				Stream.of(Direction.SOUTH, Direction.EAST)
-					.map(Direction::direction)
-					.map(p::add)
-					.map((q) -> tiles[q.row][q.col])
-					.filter((m) -> m.getTile().type() != Tile.TileType.WALL)
-					.forEach((m) -> {
-						int weight= edgeWeightGenerator.get();
-						node.addEdge(new Edge(node, m, weight));
-						m.addEdge(new Edge(m, node, weight));
-					});
+				join(node, tiles[i + 1][j], edgeWeightGenerator);
+				join(node, tiles[i][j + 1], edgeWeightGenerator);
 			}
 		}
 	}
 
-	/** Return true iff p is on the grid. */
-	private boolean isValid(Point p) {
-		return 0 < p.row && p.row < rows - 1 &&
-			0 < p.col && p.col < cols - 1;
+	/** If m is not a wall, add an edge between node and m, with its weight given <br>
+	 * by edgeWeightGenerator. */
+	private static void join(Node node, Node m, Supplier<Integer> edgeWeightGenerator) {
+		if (m.getTile().type() == Tile.TileType.WALL) return;
+		int weight= edgeWeightGenerator.get();
+		node.addEdge(new Edge(node, m, weight));
+		m.addEdge(new Edge(m, node, weight));
 	}
 
-	/** Generate a new random graph that fits within the grid and return the set of nodes. */
+	/** Generate a new random graph that fits within the grid and return the set of nodes. <br>
+	 * If targetType is not ENTRANCE, a node other than the entrance is made the target: <br>
+	 * a random one if minTargetDist < 0, and otherwise a random one at least <br>
+	 * minTargetDist edges from the entrance. If required is not null, the tile at point <br>
+	 * required is open. */
 	private Set<Node> generateGraph(Random rand,
 		Tile.TileType targetType,
-		Supplier<Integer> coinGenerator) {
-		List<Node> nodes= new ArrayList<>();
+		Supplier<Integer> coinGenerator, int minTargetDist, Point required) {
+		List<Node> nodes= dig(rand, coinGenerator, required);
 
-		Set<Point> pointsSeen= new HashSet<>();
-		Set<Point> openPoints= new HashSet<>();
-		Queue<Node> frontier= new ArrayDeque<>();
+		if (targetType != Tile.TileType.ENTRANCE) {
+			int targetIdx;
+			if (minTargetDist < 0) {
+				// Grab a random tile that's not the entrance and make it the ring.
+				targetIdx= rand.nextInt(nodes.size() - 1) + 1;
+			} else {
+				int[] far= farNodes(nodes, minTargetDist);
+				while (far.length == 0) {
+					nodes= dig(rand, coinGenerator, required);
+					far= farNodes(nodes, minTargetDist);
+				}
+				targetIdx= far[rand.nextInt(far.length)];
+			}
+			nodes.get(targetIdx).getTile().setType(targetType);
+		}
+
+		return Collections.unmodifiableSet(new HashSet<>(nodes));
+	}
+
+	/** The states of a grid cell during dig(). */
+	private static final byte UNSEEN= 0;
+	private static final byte CLOSED= 1;
+	private static final byte OPEN= 2;
+
+	/** Dig a random maze that fits within the grid and return its nodes, the entrance <br>
+	 * first. If required is not null, the tile at point required is open.
+	 *
+	 * Starting from the entrance, the maze grows breadth first: each new open tile <br>
+	 * looks at its inner neighbors not looked at before and opens each of them with <br>
+	 * probability DENSITY ---but if it has fewer than two open neighbors already, one of <br>
+	 * the new ones (if any) is forced open and the probability for the others is <br>
+	 * lowered to keep the expected number the same. <br>
+	 * The state of each cell (UNSEEN, CLOSED or OPEN) is kept in a byte array indexed by <br>
+	 * r * cols + c, and the tiles still to be grown from are the nodes not yet reached <br>
+	 * in nodes, which are added in breadth-first order. */
+	private List<Node> dig(Random rand, Supplier<Integer> coinGenerator, Point required) {
+		List<Node> nodes= new ArrayList<>();
+		byte[] state= new byte[rows * cols];
 
 		Point entrancePoint= getEntrancePoint(rand);
 		Node entrance= new Node(new Tile(entrancePoint.row,
 			entrancePoint.col, 0, Tile.TileType.ENTRANCE), cols);
 		nodes.add(entrance);
+		state[entrancePoint.row * cols + entrancePoint.col]= OPEN;
 
-		pointsSeen.add(entrancePoint);
-		openPoints.add(entrancePoint);
-		frontier.add(entrance);
-		while (!frontier.isEmpty()) {
-			Node node= frontier.remove();
-			Point p= new Point(node.getTile().row(), node.getTile().column());
+		int[] newExits= new int[4];
+		for (int next= 0; next < nodes.size(); next++ ) {
+			Tile t= nodes.get(next).getTile();
 
 			// We want to make sure there's a way out if we can get one.
 			// This will prevent stupid degenerate graphs.
 			int existingExits= 0;
-			List<Point> newExits= new ArrayList<>();
+			int nExits= 0;
 			for (Direction dir : Direction.values()) {
-				Point newPt= dir.direction().add(p);
-				if (isValid(newPt)) {
-					if (openPoints.contains(newPt)) {
+				int r= t.row() + dir.rowOffset();
+				int c= t.column() + dir.columnOffset();
+				if (isInner(r, c)) {
+					int cell= r * cols + c;
+					if (state[cell] == OPEN) {
 						existingExits++ ;
-					} else if (pointsSeen.add(newPt)) {
-						newExits.add(newPt);
+					} else if (state[cell] == UNSEEN) {
+						state[cell]= CLOSED;
+						newExits[nExits++ ]= cell;
 					}
 				}
 			}
 
-			int nExits= newExits.size();
 			if (nExits > 0) {
 				double modifiedDensity;
-				Point forcedExit;
+				int forcedExit;
 				// Modify the density function so that the expected number of open exits
 				// is the same even though we're forcing something to be open.
 				if (existingExits < 2) {
 					modifiedDensity= nExits == 1 ? 0.0 : (nExits * DENSITY - 1) / (nExits - 1);
-					forcedExit= newExits.get(rand.nextInt(newExits.size()));
+					forcedExit= newExits[rand.nextInt(nExits)];
 				} else {
 					modifiedDensity= DENSITY;
-					forcedExit= null;
+					forcedExit= -1;
+				}
+				// A forced exit does not draw a random number, and each opened tile draws
+				// its coins before the next exit is considered.
+				for (int i= 0; i < nExits; i++ ) {
+					int cell= newExits[i];
+					if (cell == forcedExit || rand.nextDouble() < modifiedDensity) {
+						state[cell]= OPEN;
+						nodes.add(new Node(new Tile(cell / cols, cell % cols,
+							coinGenerator.get(), Tile.TileType.FLOOR), cols));
+					}
 				}
-				newExits.stream()
-					.filter((q) -> q.equals(forcedExit) || rand.nextDouble() < modifiedDensity)
-					.peek(openPoints::add)
-					.map((q) -> new Node(
-						new Tile(q.row, q.col, coinGenerator.get(), Tile.TileType.FLOOR), cols))
-					.peek(frontier::add)
-					.forEach(nodes::add);
 			}
 		}
 
-		if (targetType != Tile.TileType.ENTRANCE) {
-			// Grab a random tile that's not the entrance and make it the ring.
-			int targetIdx= rand.nextInt(nodes.size() - 1) + 1;
-			nodes.get(targetIdx).getTile().setType(targetType);
+		if (required != null && state[required.row * cols + required.col] != OPEN) {
+			carve(required.row * cols + required.col, state, nodes, coinGenerator);
 		}
+		return nodes;
+	}
 
-		return Collections.unmodifiableSet(new HashSet<>(nodes));
+	/** Return true iff (r, c) is an inner tile: on the grid but not on its border. */
+	private boolean isInner(int r, int c) {
+		return 0 < r && r < rows - 1 && 0 < c && c < cols - 1;
+	}
+
+	/** Open the closed tile at cell start, and the tiles of a shortest corridor of <br>
+	 * inner tiles from it to the nearest open tile, adding a FLOOR node for each to <br>
+	 * nodes and marking it OPEN in state. <br>
+	 * Precondition: start is an inner tile and some inner tile is open. */
+	private void carve(int start, byte[] state, List<Node> nodes,
+		Supplier<Integer> coinGenerator) {
+		// Breadth-first search over inner tiles, from start to the first open tile.
+		int[] pred= new int[rows * cols];
+		Arrays.fill(pred, -2);
+		int[] queue= new int[rows * cols];
+		int head= 0;
+		int tail= 0;
+		queue[tail++ ]= start;
+		pred[start]= -1;
+		int found= -1;
+		while (found < 0 && head < tail) {
+			int cell= queue[head++ ];
+			for (Direction dir : Direction.values()) {
+				int r= cell / cols + dir.rowOffset();
+				int c= cell % cols + dir.columnOffset();
+				int w= r * cols + c;
+				if (!isInner(r, c) || pred[w] != -2) continue;
+				pred[w]= cell;
+				if (state[w] == OPEN) {
+					found= w;
+					break;
+				}
+				queue[tail++ ]= w;
+			}
+		}
+		if (found < 0) throw new IllegalStateException("carve: no inner tile is open");
+
+		for (int cell= pred[found]; cell >= 0; cell= pred[cell]) {
+			state[cell]= OPEN;
+			nodes.add(new Node(new Tile(cell / cols, cell % cols,
+				coinGenerator.get(), Tile.TileType.FLOOR), cols));
+		}
+	}
+
+	/** Return the indexes in nodes, other than 0, of the nodes whose tiles are at least <br>
+	 * minDist steps from the tile of nodes.get(0) through open tiles. <br>
+	 * Precondition: nodes are the open tiles of a maze, and nodes.get(0) is its entrance. */
+	private int[] farNodes(List<Node> nodes, int minDist) {
+		int[] index= new int[rows * cols];
+		Arrays.fill(index, -1);
+		for (int i= 0; i < nodes.size(); i++ ) {
+			Tile t= nodes.get(i).getTile();
+			index[t.row() * cols + t.column()]= i;
+		}
+
+		int[] dist= new int[nodes.size()];
+		Arrays.fill(dist, -1);
+		int[] queue= new int[nodes.size()];
+		int head= 0;
+		int tail= 0;
+		queue[tail++ ]= 0;
+		dist[0]= 0;
+		int far= 0;
+		while (head < tail) {
+			int v= queue[head++ ];
+			if (v != 0 && dist[v] >= minDist) far++ ;
+			Tile t= nodes.get(v).getTile();
+			for (Direction dir : Direction.values()) {
+				int r= t.row() + dir.rowOffset();
+				int c= t.column() + dir.columnOffset();
+				if (r < 0 || r >= rows || c < 0 || c >= cols) continue;
+				int w= index[r * cols + c];
+				if (w < 0 || dist[w] >= 0) continue;
+				dist[w]= dist[v] + 1;
+				queue[tail++ ]= w;
+			}
+		}
+
+		int[] result= new int[far];
+		int k= 0;
+		for (int i= 1; i < nodes.size(); i++ ) {
+			if (dist[i] >= minDist) result[k++ ]= i;
+		}
+		return result;
 	}
 
 	/** Return a randomly chosen entrance to the sewer system <br>
@@ -306,6 +554,12 @@ public class Sewers {
 		return graph.size();
 	}
 
+	/** Return the open node with index i (see Node.getIndex()). <br>
+	 * Precondition: 0 <= i < numOpenTiles(). */
+	public Node node(int i) {
+		return byIndex[i];
+	}
+
 	/** Return the number of rows in the grid. */
 	public int rowCount() {
 		return rows;
@@ -343,42 +597,101 @@ public class Sewers {
 		return tiles[r][c];
 	}
 
+	/** Return the grid (Manhattan) distance from tile (r, c) to the ring. <br>
+	 * Precondition: (r, c) must be in the grid. */
+	public int ringDistance(int r, int c) {
+		if (ringDist == null) buildTables();
+		return ringDist[r * cols + c];
+	}
+
+	/** Return the id of the node joined to the node at (r, c) by an edge in <br>
+	 * direction d, or -1 if there is no such edge. <br>
+	 * Precondition: (r, c) must be in the grid. */
+	public long neighborId(int r, int c, Direction d) {
+		if (ringDist == null) buildTables();
+		return neighborIds[(r * cols + c) * 4 + d.ordinal()];
+	}
+
+	/** Return the length of the edge leaving the node at (r, c) in direction d, <br>
+	 * or 0 if there is no such edge. <br>
+	 * Precondition: (r, c) must be in the grid. */
+	public int edgeWeight(int r, int c, Direction d) {
+		if (ringDist == null) buildTables();
+		return edgeWeights[(r * cols + c) * 4 + d.ordinal()];
+	}
+
+	/** Build the per-cell lookup tables ringDist, neighborIds and edgeWeights. <br>
+	 * Edges that do not join tiles next to each other on the grid are left out. */
+	private void buildTables() {
+		int cells= rows * cols;
+		int ringRow= ring.getTile().row();
+		int ringCol= ring.getTile().column();
+		int[] rd= new int[cells];
+		long[] ids= new long[4 * cells];
+		byte[] weights= new byte[4 * cells];
+		Arrays.fill(ids, -1);
+		for (int r= 0; r < rows; r++ ) {
+			for (int c= 0; c < cols; c++ ) {
+				rd[r * cols + c]= Math.abs(r - ringRow) + Math.abs(c - ringCol);
+			}
+		}
+		for (Node n : graph) {
+			Tile t= n.getTile();
+			int base= (t.row() * cols + t.column()) * 4;
+			for (Edge e : n.getExits()) {
+				Node other= e.getOther(n);
+				Direction d= Direction.between(t, other.getTile());
+				if (d == null) continue;
+				ids[base + d.ordinal()]= other.getId();
+				weights[base + d.ordinal()]= (byte) e.length;
+			}
+		}
+		neighborIds= ids;
+		edgeWeights= weights;
+		ringDist= rd;
+	}
+
+	/** Return a compact snapshot of the graph of this sewer system. <br>
+	 * It is built on the first call and shared by later calls. */
+	public SewerGraph compact() {
+		if (compact == null) {
+			compact= SewerGraph.of(this);
+		}
+		return compact;
+	}
+
+	/** Return Landmarks.DEFAULT_COUNT landmarks of compact(), an A* heuristic that, <br>
+	 * unlike the Manhattan distance, accounts for walls and edge weights. <br>
+	 * They are selected on the first call (unless they were read along with this <br>
+	 * sewer system by load()) and shared by later calls. */
+	public Landmarks landmarks() {
+		if (landmarks == null) {
+			landmarks= Landmarks.select(compact(), Landmarks.DEFAULT_COUNT);
+		}
+		return landmarks;
+	}
+
+	/** Write the landmarks of this sewer system to the file alongside mapFile, the <br>
+	 * file this sewer system is saved in, so that load(mapFile) reads them back <br>
+	 * instead of selecting them again. See Landmarks.fileFor(). */
+	public void writeLandmarks(Path mapFile) throws IOException {
+		landmarks().write(Landmarks.fileFor(mapFile));
+	}
+
 	/** Package-private implementation of Dijkstra's algorithm<br>
 	 * It returns the shortest distance from node start to ring node. <br>
+	 * The search grows from both ends at once and stops where they meet. <br>
 	 * Precondition: start must be a node of the graph. */
 	int minPathLengthToRing(Node start) {
-
-		/** The frontier set, as a min-heap. */
-		InternalMinHeap<Node> F= new InternalMinHeap<>();
-		F.add(start, 0);
-
-		/** Contains an entry for each element of the settled and frontier sets.<br>
-		 * The keys are the Ids of nodes, the values are the corresponding <br>
-		 * distances from node start to this node, using only settled nodes except for the last,
-		 * which is in the frontier set. */
-		Map<Long, Integer> SFmap= new HashMap<>();
-		SFmap.put(start.getId(), 0);
-
-		while (F.size() > 0) {
-			Node f= F.poll();
-			if (f.equals(ring)) { return SFmap.get(f.getId()); }
-
-			int fDist= SFmap.get(f.getId());
-			for (Edge e : f.getExits()) {
-				Node w= e.getOther(f);
-				Long wId= w.getId();
-				Integer wDist= SFmap.get(wId);
-				int wDistNew= fDist + e.length();
-				if (wDist == null) {
-					SFmap.put(wId, wDistNew);
-					F.add(w, wDistNew);
-				} else if (wDistNew < wDist) {
-					SFmap.put(wId, wDistNew);
-					F.changePriority(w, wDistNew);
-				}
-			}
+		SewerGraph g= compact();
+		if (search == null) {
+			search= new BidirectionalSearch(g);
+		}
+		int d= search.distance(g.index(start), g.index(ring));
+		if (d < 0) {
+			throw new IllegalStateException("The search should always reach the desired location.");
 		}
-		throw new IllegalStateException("The above loop should always reach the desired location.");
+		return d;
 	}
 
 	/** Serialize this sewer system to a list of strings that can be written out to a file. <br>
@@ -456,4 +769,152 @@ public class Sewers {
 		}
 		return new Sewers(new HashSet<>(idToNode.values()), tiles, idToNode.get(targetId));
 	}
+
+	/** Write this sewer system to file in a compact binary format, which can be <br>
+	 * read back with readBinary() or load(). All values are big-endian. The format is:
+	 *
+	 * a header: int "SWR1", int rows, int columns, long ring id, int number of nodes, <br>
+	 * .. int number of edge records; <br>
+	 * one 24-byte record per node, in row-major order of their tiles: long id, int row, <br>
+	 * .. int column, int coins, short tile type (ordinal), short number of edges; <br>
+	 * one 8-byte record per edge leaving a node, the edges of each node together and <br>
+	 * .. in the order of the nodes: int index of the other node's record, int length. */
+	public void writeBinary(Path file) throws IOException {
+		SewerGraph g= compact();
+		int n= g.size();
+		int m= g.edgeCount();
+		ByteBuffer buf= ByteBuffer.allocate(HEADER_BYTES + n * NODE_BYTES + m * EDGE_BYTES);
+		buf.putInt(BINARY_MAGIC).putInt(rows).putInt(cols).putLong(ring.getId())
+			.putInt(n).putInt(m);
+		for (int v= 0; v < n; v++ ) {
+			Tile t= g.node(v).getTile();
+			buf.putLong(g.id(v)).putInt(t.row()).putInt(t.column()).putInt(t.coins())
+				.putShort((short) t.type().ordinal()).putShort((short) g.degree(v));
+		}
+		for (int e= 0; e < m; e++ ) {
+			buf.putInt(g.target(e)).putInt(g.weight(e));
+		}
+		buf.flip();
+		try (FileChannel ch= FileChannel.open(file, StandardOpenOption.CREATE,
+			StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buf.hasRemaining()) {
+				ch.write(buf);
+			}
+		}
+	}
+
+	/** Read a sewer system from file, which was written by writeBinary(). <br>
+	 * The file is memory-mapped and its fixed-width records are decoded in place, <br>
+	 * without any parsing of text. <br>
+	 * Throw an IOException if file is not in the binary format, or if it is truncated <br>
+	 * or corrupt: its length does not match its header, a record is out of range <br>
+	 * (a tile type that is not open, a row or column outside the header's dimensions, <br>
+	 * two nodes with one tile or id, a negative edge count or length, an edge to a node <br>
+	 * that is not in the file or not on an adjacent tile), or there is not exactly one <br>
+	 * entrance and one node with the ring's id, or there is more than one ring tile <br>
+	 * (a scram sewer has none: its ring is the entrance). */
+	public static Sewers readBinary(Path file) throws IOException {
+		MappedByteBuffer buf;
+		try (FileChannel ch= FileChannel.open(file, StandardOpenOption.READ)) {
+			buf= ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+		}
+		if (buf.limit() < HEADER_BYTES || buf.getInt(0) != BINARY_MAGIC) {
+			throw new IOException(file + " is not a binary sewer file");
+		}
+		int rows= buf.getInt(4);
+		int cols= buf.getInt(8);
+		long targetId= buf.getLong(12);
+		int n= buf.getInt(20);
+		int m= buf.getInt(24);
+		if (rows <= 0 || cols <= 0 || n < 0 || m < 0 || n > (long) rows * cols) {
+			throw corrupt(file, "header " + rows + "x" + cols + ", " + n + " nodes, " + m + " edges");
+		}
+		if (buf.limit() != HEADER_BYTES + (long) n * NODE_BYTES + (long) m * EDGE_BYTES) {
+			throw corrupt(file, "length " + buf.limit() + " does not match the header");
+		}
+
+		Tile.TileType[] types= Tile.TileType.values();
+		Node[] nodes= new Node[n];
+		Set<Node> graph= new HashSet<>();
+		Node target= null;
+		int entrances= 0;
+		int rings= 0;
+		long edges= 0;
+		Node[][] tiles= new Node[rows][cols];
+		for (int v= 0, at= HEADER_BYTES; v < n; v++ , at+= NODE_BYTES) {
+			long id= buf.getLong(at);
+			int row= buf.getInt(at + 8);
+			int col= buf.getInt(at + 12);
+			int type= buf.getShort(at + 20);
+			if (type < 0 || type >= types.length || !types[type].isOpen()) {
+				throw corrupt(file, "node " + v + " has tile type " + type);
+			}
+			if (row < 0 || row >= rows || col < 0 || col >= cols) {
+				throw corrupt(file, "node " + v + " is at (" + row + ", " + col + ")");
+			}
+			if (tiles[row][col] != null) {
+				throw corrupt(file, "two nodes are at (" + row + ", " + col + ")");
+			}
+			nodes[v]= new Node(id, new Tile(row, col, buf.getInt(at + 16), types[type]));
+			if (!graph.add(nodes[v])) throw corrupt(file, "two nodes have id " + id);
+			tiles[row][col]= nodes[v];
+			if (types[type] == Tile.TileType.ENTRANCE) entrances++ ;
+			if (types[type] == Tile.TileType.RING) rings++ ;
+			if (id == targetId) target= nodes[v];
+			int degree= buf.getShort(at + 22);
+			if (degree < 0) throw corrupt(file, "node " + v + " has " + degree + " edges");
+			edges+= degree;
+		}
+		if (entrances != 1) throw corrupt(file, entrances + " entrances");
+		if (rings > 1) throw corrupt(file, rings + " ring tiles");
+		if (target == null) throw corrupt(file, "no node has the ring's id " + targetId);
+		if (edges != m) throw corrupt(file, "the nodes have " + edges + " edges, not " + m);
+
+		int at= HEADER_BYTES + n * NODE_BYTES;
+		for (int v= 0; v < n; v++ ) {
+			int degree= buf.getShort(HEADER_BYTES + v * NODE_BYTES + 22);
+			for (int k= 0; k < degree; k++ , at+= EDGE_BYTES) {
+				int w= buf.getInt(at);
+				int length= buf.getInt(at + 4);
+				if (w < 0 || w >= n ||
+					Direction.between(nodes[v].getTile(), nodes[w].getTile()) == null) {
+					throw corrupt(file, "node " + v + " has an edge to node " + w);
+				}
+				if (length < 0) throw corrupt(file, "node " + v + " has an edge of length " + length);
+				nodes[v].addEdge(new Edge(nodes[v], nodes[w], length));
+			}
+		}
+
+		for (int i= 0; i < rows; i++ ) {
+			for (int j= 0; j < cols; j++ ) {
+				if (tiles[i][j] == null) {
+					tiles[i][j]= new Node(new Tile(i, j, 0, Tile.TileType.WALL), cols);
+				}
+			}
+		}
+		return new Sewers(graph, tiles, target);
+	}
+
+	/** Return the IOException for a binary sewer file that is corrupt, as described by what. */
+	private static IOException corrupt(Path file, String what) {
+		return new IOException("corrupt sewer file: " + what + " (" + file + ")");
+	}
+
+	/** Read a sewer system from file, which is either in the binary format of <br>
+	 * writeBinary() or in the text format of serialize(), one string per line, <br>
+	 * together with its landmarks if writeLandmarks(file) saved them. */
+	public static Sewers load(Path file) throws IOException {
+		boolean binary;
+		try (FileChannel ch= FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer magic= ByteBuffer.allocate(4);
+			while (magic.hasRemaining() && ch.read(magic) >= 0) {}
+			binary= !magic.hasRemaining() && magic.getInt(0) == BINARY_MAGIC;
+		}
+		Sewers sewers= binary ? readBinary(file) : deserialize(Files.readAllLines(file));
+		Path alt= Landmarks.fileFor(file);
+		if (Files.exists(alt)) {
+			sewers.landmarks= Landmarks.read(alt, sewers.compact());
+		}
+		return sewers;
+	}
 }
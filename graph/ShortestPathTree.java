@@ -0,0 +1,95 @@
+package graph;
+
+/** An instance is a tree of shortest paths between one root node of a SewerGraph <br>
+ * and every node of the graph, e.g. the paths from every node to the exit.
+ *
+ * It is computed once, with one run of Dijkstra's algorithm from the root; since the <br>
+ * graph is undirected, it then answers "how far is node v from the root?" in constant <br>
+ * time and "what is the shortest path from v to the root?" in time proportional to <br>
+ * the length of the path, by following parent links. */
+public final class ShortestPathTree {
+
+	/** The value of distance(v) when v cannot reach the root. */
+	public static final int UNREACHABLE= Integer.MAX_VALUE;
+
+	/** The graph and the root of the tree. */
+	private final SewerGraph graph;
+	private final int root;
+
+	/** For each node v: dist[v] is the length of a shortest path between v and the root <br>
+	 * (UNREACHABLE if there is none), and parent[v] is the node after v on such a path <br>
+	 * from v to the root (-1 if v is the root or unreachable). */
+	private final int[] dist;
+	private final int[] parent;
+
+	/** Constructor: the shortest-path tree of g rooted at node root. */
+	public ShortestPathTree(SewerGraph g, int root) {
+		this(new DijkstraSearch(g), root);
+	}
+
+	/** Constructor: the shortest-path tree of search's graph rooted at node root, <br>
+	 * computed with search. */
+	public ShortestPathTree(DijkstraSearch search, int root) {
+		graph= search.graph();
+		this.root= root;
+		int n= graph.size();
+		dist= new int[n];
+		parent= new int[n];
+		search.run(root, -1);
+		for (int v= 0; v < n; v++ ) {
+			dist[v]= search.distance(v);
+			parent[v]= search.predecessor(v);
+		}
+	}
+
+	/** Return the graph of this tree. */
+	public SewerGraph graph() {
+		return graph;
+	}
+
+	/** Return the root of this tree. */
+	public int root() {
+		return root;
+	}
+
+	/** Return the length of a shortest path between node v and the root, <br>
+	 * or UNREACHABLE if there is none. */
+	public int distance(int v) {
+		return dist[v];
+	}
+
+	/** Return the node after v on a shortest path from v to the root <br>
+	 * (-1 if v is the root or cannot reach it). */
+	public int parent(int v) {
+		return parent[v];
+	}
+
+	/** Return the nodes of a shortest path from v to the root, v first and the root <br>
+	 * last ---or an empty array if v cannot reach the root. */
+	public int[] pathToRoot(int v) {
+		if (dist[v] == UNREACHABLE) return new int[0];
+		int len= 1;
+		for (int p= v; p != root; p= parent[p]) {
+			len++ ;
+		}
+		int[] path= new int[len];
+		int p= v;
+		for (int k= 0; k < len; k++ ) {
+			path[k]= p;
+			p= parent[p];
+		}
+		return path;
+	}
+
+	/** Return the nodes of a shortest path from the root to v, the root first and v <br>
+	 * last ---or an empty array if v cannot reach the root. */
+	public int[] pathFromRoot(int v) {
+		int[] path= pathToRoot(v);
+		for (int a= 0, b= path.length - 1; a < b; a++ , b-- ) {
+			int tmp= path[a];
+			path[a]= path[b];
+			path[b]= tmp;
+		}
+		return path;
+	}
+}